@@ -23,10 +23,6 @@ SOFTWARE.
 */
 package hu.unipannon.virt.plot.control;
 
-import java.util.Arrays;
-import java.util.LinkedList;
-import java.util.List;
-
 import static java.lang.Math.log10;
 import static java.lang.Math.pow;
 import static java.lang.Math.floor;
@@ -43,18 +39,39 @@ import static java.lang.Math.abs;
  * The algorithm rounds up the interval's high point and down the low point. 
  * Then the algorithm tries to fill in the new interval with predefined values
  * and their 10x multiples. Then the division with the most liked number of divisor
- * points will be selected based on a goal function.
+ * points will be selected based on a goal function. If the difference index
+ * of the interval does not give a usable division (like for intervals starting
+ * at 0), the magnitude of the interval's length is used instead.<br>
+ * The divisor points are computed with primitive arithmetic only, and the 
+ * recently requested intervals are remembered in a small least recently used
+ * memo, as autoscaled plots request the same intervals on every display.
  * @author Tóth Bálint
  */
 public class AxisGenerator {
 
-    private static double[] snapPoints = new double[] {0,1,2,4,5,10};
+    private static final double[] snapPoints = new double[] {0,1,2,4,5,10};
 
-    private static  double[] divUnit(int magnitude) {
-	return Arrays.stream(snapPoints)
-	    .map(x -> x * pow(10,magnitude))
-	    .toArray();
-    }
+    // the interval ends are rounded to these points of their magnitude
+    private static final double[] roundingPoints = new double[] {
+	0,0.5,1,1.5,2,2.5,3,3.5,4,4.5,5,6,7,8,9,10
+    };
+
+    // decay of the default goal function, which prefers about 5 divisions
+    private static final double DEFAULT_DECAY = 0.14;
+
+    // number of intervals remembered by the memo
+    private static final int MEMO_SIZE = 32;
+    // low mantissa bits of the interval ends ignored by the memo keys
+    private static final long QUANTUM_MASK = ~((1L << 20) - 1);
+
+    // least recently used memo of the generated divisor points, the keys are
+    // the quantized interval ends and the target count
+    private static final long[] memoMin = new long[MEMO_SIZE];
+    private static final long[] memoMax = new long[MEMO_SIZE];
+    private static final int[] memoCount = new int[MEMO_SIZE];
+    private static final double[][] memoPoints = new double[MEMO_SIZE][];
+    private static final long[] memoUsed = new long[MEMO_SIZE];
+    private static long memoClock = 0;
 
     private static double flog(double d) {
 	if (d ==0)
@@ -98,75 +115,150 @@ public class AxisGenerator {
      * @return array of divisor points on the interval.
      */
     public static double[] lpoints(double min, double max) {
+	return lpoints(min, max, 0);
+    }
+
+    /**
+     * This function can be used to request an array of precalculated divisor 
+     * points for an interval, with about the given number of divisions. 
+     * End points included: [min;max].
+     * The divisor points are remembered for the recently requested intervals,
+     * so autoscaled plots that are displayed again and again only generate 
+     * them when their interval changes.
+     * @param min lowest value of the interval.
+     * @param max highest value of the interval.
+     * @param targetCount preferred number of divisions, 0 for the default (about 5).
+     * @return array of divisor points on the interval.
+     */
+    public static double[] lpoints(double min, double max, int targetCount) {
 	if (min >= max) {
 	    System.out.println("Error");
 	    return null;
 	}
+	double[] points = recall(min, max, targetCount);
+	if (points == null) {
+	    double decay = targetCount > 0 ? Math.log(2) / targetCount : DEFAULT_DECAY;
+	    points = generate(min, max, decay);
+	    remember(min, max, targetCount, points);
+	}
+	// the remembered array is not given out, as the callers can modify it
+	return points.clone();
+    }
 
+    /**
+     * Generates the divisor points of an interval without intermediate 
+     * collections. The interval is divided at the magnitude given by the 
+     * difference index first, and at the magnitude of its length if that does
+     * not give a usable division, like for the intervals starting at 0.
+     * @param min lowest value of the interval.
+     * @param max highest value of the interval.
+     * @param decay decay of the goal function, its maximum is at ln(2) / decay divisions.
+     * @return array of divisor points on the interval.
+     */
+    private static double[] generate(double min, double max, double decay) {
+	double[] result = divide(difindex(min,max), min, max, decay);
+	if (result == null)
+	    result = divide((int)flog(max - min), min, max, decay);
+	if (result == null)
+	    result = new double[] {min, max};
+	return result;
+    }
+
+    /**
+     * Divides an interval: the ends are rounded, then the division unit with
+     * the best goal value is selected, and the points are computed from the unit.
+     * @param didx magnitude the ends are rounded to.
+     * @param min lowest value of the interval.
+     * @param max highest value of the interval.
+     * @param decay decay of the goal function, its maximum is at ln(2) / decay divisions.
+     * @return array of divisor points on the interval, null if the division is not usable.
+     */
+    private static double[] divide(int didx, double min, double max, double decay) {
 	// step 1.
-	// get the original difference index
-	int didx = difindex(min,max);
+	// round up and down to the index
+	double minRes = roundDownToIdx(didx,min);
+	double maxRes = roundUpToIdx(didx,max);
 
 	// step 2.
-	// round up and down to the original index
-	final double minRes = roundDownToIdx(didx,min);
-	final double maxRes = roundUpToIdx(didx,max);
-
-	// step 3.
-	// correction based on the divisor interval
-
-	// 3.1 find a suitable dipoint list with the original divs
-	// needs a fittness function
-
-	final double span = maxRes-minRes;
+	// find the division unit with the best goal value, from the snap 
+	// points of the magnitude and the one below it
+	double span = maxRes-minRes;
+	if (!(span > 0) || span > 4 * (max - min))
+	    return null;
 
 	double optimalDivUnit = 1;
 	double optimalGoal = 0.0;
 
-	for (var x : divUnit(didx)) {
-	    if (x != 0 && (span / x) % 1 == 0) {
-		double goal = heuristicFunction1(span/x);
+	for (int magnitude=didx;magnitude>=didx-1;magnitude--) {
+	    double unit = pow(10,magnitude);
+	    for (double snap : snapPoints) {
+		double x = snap * unit;
+		if (x == 0)
+		    continue;
+		double divisions = span / x;
+		if (!isWhole(divisions))
+		    continue;
+		double goal = goalFunction(divisions, decay);
 		if (goal > optimalGoal) {
 		    optimalGoal = goal;
 		    optimalDivUnit = x;
 		}
 	    }
 	}
+	// too many divisions can not be labeled
+	int count = (int)Math.rint(span / optimalDivUnit) + 1;
+	if (optimalGoal == 0 || count > 4 * Math.log(2) / decay + 1)
+	    return null;
 
-	for (var x : divUnit(didx-1)) {
-	    if (x != 0 && (span / x) % 1 == 0) {
-		double goal = heuristicFunction1(span/x);
-		if (goal > optimalGoal) {
-		    optimalGoal = goal;
-		    optimalDivUnit = x;
-		}
+	// step 3.
+	// the points are computed from their index, so the rounding errors do
+	// not accumulate, and they are rounded to the precision of the unit
+	double precision = Math.max(100, pow(10, 1 - flog(optimalDivUnit)));
+	double[] result = new double[count];
+	for (int i=0;i<count;i++)
+	    result[i] = (double)Math.round((minRes + i * optimalDivUnit) * precision) / precision;
+	return result;
+    }
+
+    /**
+     * Checks if a number of divisions is whole, allowing the rounding errors
+     * of the division.
+     */
+    private static boolean isWhole(double divisions) {
+	return abs(divisions - Math.rint(divisions)) <= 1e-9 * Math.max(1, divisions);
+    }
+
+    /**
+     * Looks up the divisor points of an interval in the memo.
+     * @return remembered divisor points, null if the interval is not remembered.
+     */
+    private static synchronized double[] recall(double min, double max, int targetCount) {
+	long qmin = Double.doubleToLongBits(min) & QUANTUM_MASK;
+	long qmax = Double.doubleToLongBits(max) & QUANTUM_MASK;
+	for (int i=0;i<MEMO_SIZE;i++) {
+	    if (memoPoints[i] != null && memoMin[i] == qmin && memoMax[i] == qmax
+		&& memoCount[i] == targetCount) {
+		memoUsed[i] = ++memoClock;
+		return memoPoints[i];
 	    }
 	}
-	// System.out.println(" Optimal div unit: " + optimalDivUnit);
-	// System.out.print("[" + minRes);
-	// double acc = minRes;
-	// acc += optimalDivUnit;
-	// while (acc <= maxRes) {
-	//     System.out.print(", " + acc);
-	//     acc += optimalDivUnit;
-	// }
-	// System.out.print("]");
-
-	List<Double> divPoints = new LinkedList<>();
-	double acc = minRes;
-	divPoints.add(acc);
-	acc += optimalDivUnit;
-	while (acc <= maxRes) {
-	    divPoints.add(acc);
-	    acc += optimalDivUnit;
-	}
-	int arrSize = divPoints.size();
-	var result = new double[arrSize];
-	for (int i=0;i<divPoints.size();i++) {
-	    result[i] = (double)Math.round(divPoints.get(i) * 100) / 100.0;
-	}
-	return result;
+	return null;
+    }
 
+    /**
+     * Stores the divisor points of an interval in the memo, in the place of 
+     * the least recently used interval.
+     */
+    private static synchronized void remember(double min, double max, int targetCount, double[] points) {
+	int lru = 0;
+	for (int i=1;i<MEMO_SIZE;i++)
+	    if (memoUsed[i] < memoUsed[lru])
+		lru = i;
+	memoMin[lru] = Double.doubleToLongBits(min) & QUANTUM_MASK;
+	memoMax[lru] = Double.doubleToLongBits(max) & QUANTUM_MASK;
+	memoCount[lru] = targetCount;
+	memoPoints[lru] = points;
+	memoUsed[lru] = ++memoClock;
     }
 
     private static double roundDownToIdx2(int didx, double min) {
@@ -195,31 +287,24 @@ public class AxisGenerator {
     private static double roundDownToIdx(int didx, double min) {
 	var minDigits = min % pow(10,didx+1);
 	var minRem = min - minDigits;
+	double unit = pow(10,didx);
 
 	double minRes = 0.0;
-	var roundingPoints = new double[] {
-	    0,0.5,1,1.5,2,2.5,3,3.5,4,4.5,5,6,7,8,9,10
-	};
-
 	int len = roundingPoints.length;
 
-	var shiftedRoundingPoints = Arrays.stream(roundingPoints)
-	    .map(x -> x * pow(10,didx))
-	    .toArray();
-
 	int j = len - 1;
 	if (min >= 0) {
 	    j = len - 1;
-	    while (minDigits < shiftedRoundingPoints[j] && j >= 0) {
+	    while (j >= 0 && minDigits < roundingPoints[j] * unit) {
 		j--;
 	    }
-	    minRes = minRem + shiftedRoundingPoints[j];
+	    minRes = minRem + roundingPoints[j] * unit;
 	} else {
 	    j = 0;
-	    while (-minDigits > shiftedRoundingPoints[j] && j < len) {
+	    while (j < len - 1 && -minDigits > roundingPoints[j] * unit) {
 		j++;
 	    }
-	    minRes = minRem - shiftedRoundingPoints[j];
+	    minRes = minRem - roundingPoints[j] * unit;
 	}
 	return minRes;
     }
@@ -251,42 +336,24 @@ public class AxisGenerator {
     private static double roundUpToIdx(int didx, double max) {
 	var maxDigits = max % pow(10,didx+1);
 	var maxRem = max - maxDigits;
-
-	var roundingPoints = new double[] {
-	    0,0.5,
-	    1,1.5,
-	    2,2.5,
-	    3,3.5,
-	    4,4.5,
-	    5,
-	    6,
-	    7,
-	    8,
-	    9,
-	    10
-	};
-
-	var shiftedRoundingPoints = Arrays.stream(roundingPoints)
-	    .map(x -> x * pow(10,didx))
-	    .toArray();
-	int len = shiftedRoundingPoints.length;
-
+	double unit = pow(10,didx);
+	int len = roundingPoints.length;
 
 	double maxRes = 0.0;
 
 	int i = 0;
 	if (max >= 0) {
 	    i = 0;
-	    while (maxDigits > shiftedRoundingPoints[i] && i < len) {
+	    while (i < len - 1 && maxDigits > roundingPoints[i] * unit) {
 		i++;
 	    }
-	    maxRes = maxRem + shiftedRoundingPoints[i];
+	    maxRes = maxRem + roundingPoints[i] * unit;
 	} else {
 	    i = len - 1;
-	    while (-maxDigits < shiftedRoundingPoints[i] && i >= 0) {
+	    while (i >= 0 && -maxDigits < roundingPoints[i] * unit) {
 		i--;
 	    }
-	    maxRes = maxRem - shiftedRoundingPoints[i];
+	    maxRes = maxRem - roundingPoints[i] * unit;
 	}
 
 	return maxRes;
@@ -301,7 +368,11 @@ public class AxisGenerator {
 	return Math.exp(-(pow((x-6),2) / 5));
     }
 
-    private static double heuristicFunction1(double x) {
-	return 4*(Math.exp((-0.14) * x) - Math.exp((-0.28) * x));
+    /**
+     * Goal function of the number of divisions, with its maximum at 
+     * ln(2) / decay divisions.
+     */
+    private static double goalFunction(double x, double decay) {
+	return 4*(Math.exp(-decay * x) - Math.exp(-2 * decay * x));
     }
 }
@@ -254,9 +254,7 @@ public class BarController extends PlotSpaceController {
 	}
 
 	// turn on the zero line if needed
-	if (originX != 0) {
-	    plotSpace.getFrame().getHorizontalAxis().showOriginLine();
-	}
+	hOriginLine = originX != 0;
 
 	plotSpace.addBar(hDivPoints,
 			 im,
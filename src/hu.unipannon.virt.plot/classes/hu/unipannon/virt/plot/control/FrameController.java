@@ -23,18 +23,25 @@ SOFTWARE.
 */
 package hu.unipannon.virt.plot.control;
 
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+
 import javafx.scene.layout.Pane;
 
 import hu.unipannon.virt.plot.frame.horizontal.HorizontalAxis;
 import hu.unipannon.virt.plot.frame.vertical.VerticalAxis;
 import hu.unipannon.virt.plot.frame.Frame;
+import hu.unipannon.virt.plot.frame.RenderMode;
 import hu.unipannon.virt.plot.fluent.Defaults;
+import hu.unipannon.virt.plot.headless.HeadlessFrame;
 
 /**
  * The Frame Controller handles all the frame settings that are the same for 
  * every plot type: axes, legend etc.
  * For the plot to show properly, the plot space needs to be filled in. This 
  * operation can be implemented with a Plot Space Controller.
+ * The settings are stored, and the graphical objects are only created when the
+ * plot is displayed, so the same settings can be rendered without JavaFX too.
  * 
  * @see PlotSpaceController
  * @author Tóth Bálint
@@ -92,15 +99,21 @@ public class FrameController {
     private boolean box = true;
 
     private boolean grid = false;
+
+    private String title = null;
+    private String xlabelText = null;
+    private String ylabelText = null;
+    private TickDir tickDir = null;
+    private RenderMode renderMode = null;
 		
     /**
      * Default constructs a Frame Controller.
      * Every value is null, or contains default settings.
      */
     public FrameController() {
-	frame = new Frame(); 
-	hax = frame.getHorizontalAxis();
-	vax = frame.getVerticalAxis();
+	frame = null;
+	hax = null;
+	vax = null;
 	psController = null;
     }
 
@@ -110,7 +123,6 @@ public class FrameController {
      */
     public void addPlotSpaceController(PlotSpaceController psc) {
 	this.psController = psc;
-	psc.setPlotSpace(frame.getPlotSpace());
     }
 
     /**
@@ -126,10 +138,7 @@ public class FrameController {
      * @param xlabel value of the x label.
      */
     public void xLabel(String xlabel) {
-	hax.getLowerAxisLabel().setText(xlabel);
-	hax.getUpperAxisLabel().setText(xlabel);
-	hax.getOriginAxisLabel().setText(xlabel);
-
+	this.xlabelText = xlabel;
 	this.xlabel = true;
     }
 
@@ -138,10 +147,7 @@ public class FrameController {
      * @param ylabel value of the y label.
      */
     public void yLabel(String ylabel) {
-	vax.getLeftAxisLabel().setText(ylabel);
-	vax.getRightAxisLabel().setText(ylabel);
-	vax.getOriginAxisLabel().setText(ylabel);
-
+	this.ylabelText = ylabel;
 	this.ylabel = true;
     }
 
@@ -150,29 +156,27 @@ public class FrameController {
      * @param dir direction of the ticks. (in / out / both / none).
      */
     public void tickDir(TickDir dir) {
-	frame.innerTickLength().unbind();
-	frame.outerTickLength().unbind();
+	this.tickDir = dir;
+    }
 
-	switch (dir) {
-	case IN:
-	    frame.innerTickLength().set(TICK_LEN);
-	    frame.outerTickLength().set(0);
-	    break;
-	case OUT:
-	    frame.innerTickLength().set(0);
-	    frame.outerTickLength().set(TICK_LEN);
-	    break;
-	case BOTH:
-	    frame.innerTickLength().set(TICK_LEN);
-	    frame.outerTickLength().set(TICK_LEN);
-	    break;
-	case NONE:
-	    frame.innerTickLength().set(0);
-	    frame.outerTickLength().set(0);
-	    break;
-	default:
-	    break;
-	}
+    /**
+     * Query for the inner tick length of the configured tick direction.
+     * @return length relative to the frame width.
+     */
+    private double innerTickLength() {
+	if (tickDir == null)
+	    return TICK_LEN;
+	return tickDir == TickDir.IN || tickDir == TickDir.BOTH ? TICK_LEN : 0;
+    }
+
+    /**
+     * Query for the outer tick length of the configured tick direction.
+     * @return length relative to the frame width.
+     */
+    private double outerTickLength() {
+	if (tickDir == null)
+	    return 0;
+	return tickDir == TickDir.OUT || tickDir == TickDir.BOTH ? TICK_LEN : 0;
     }
 
     /**
@@ -199,14 +203,20 @@ public class FrameController {
 	this.grid = on;
     }
 
+    /**
+     * Sets the rendering backend of the plot space's data series.
+     * @param mode render mode (nodes / canvas).
+     */
+    public void renderMode(RenderMode mode) {
+	this.renderMode = mode;
+    }
+
     /**
      * Sets the text value of the title.
      * @param title value of the title.
      */
     public void title(String title) {
-	// this can actually stay
-	frame.getTitle().setText(title);
-	frame.showTitle();
+	this.title = title;
     }
 
     /**
@@ -220,6 +230,7 @@ public class FrameController {
 	if (psController == null)
 	    return pane;
 
+	getFrame();
 	pane.setPrefSize(WIDTH,HEIGHT);
 	pane.setStyle("-fx-background-color: #eaeaea");
 	pane.getChildren().add(frame);
@@ -227,6 +238,28 @@ public class FrameController {
 	frame.frameHeight().bind(pane.heightProperty());
 
 	// == SETTINGS == 
+	if (title != null) {
+	    frame.getTitle().setText(title);
+	    frame.showTitle();
+	}
+	if (xlabel) {
+	    hax.getLowerAxisLabel().setText(xlabelText);
+	    hax.getUpperAxisLabel().setText(xlabelText);
+	    hax.getOriginAxisLabel().setText(xlabelText);
+	}
+	if (ylabel) {
+	    vax.getLeftAxisLabel().setText(ylabelText);
+	    vax.getRightAxisLabel().setText(ylabelText);
+	    vax.getOriginAxisLabel().setText(ylabelText);
+	}
+	if (tickDir != null) {
+	    frame.innerTickLength().unbind();
+	    frame.outerTickLength().unbind();
+	    frame.innerTickLength().set(innerTickLength());
+	    frame.outerTickLength().set(outerTickLength());
+	}
+	if (renderMode != null)
+	    frame.getPlotSpace().setRenderMode(renderMode);
 
 
 	hax.setStroke(Defaults.DEFAULT_AXIS_COLOR, Defaults.DEFAULT_AXIS_WIDTH);
@@ -246,7 +279,23 @@ public class FrameController {
 	// == PLOT SPACE CONTROL ==
 	// properly abstracted away, so this is all
 
+	psController.setPlotSpace(frame.getPlotSpace());
 	psController.display();
+	if (psController.isHOriginLineShown())
+	    hax.showOriginLine();
+	if (psController.isVOriginLineShown())
+	    vax.showOriginLine();
+	updateAxes();
+	// the controller can change its data after display
+	psController.setOnAxesChanged(this::updateAxes);
+	return pane;
+    }
+
+    /**
+     * Applies the divisor points and the origins of the plot space controller
+     * to the axes of the frame.
+     */
+    private void updateAxes() {
 	hax.setDivisors(psController.getHDivPoints(),
 			psController.getHDivLabels());
 	vax.setDivisors(psController.getVDivPoints(),
@@ -262,7 +311,62 @@ public class FrameController {
 	// this one needs to be after setting the divisors
 	hax.getGrid().setLineStroke(Defaults.DEFAULT_GRID_COLOR,Defaults.DEFAULT_GRID_WIDTH);
 	vax.getGrid().setLineStroke(Defaults.DEFAULT_GRID_COLOR,Defaults.DEFAULT_GRID_WIDTH);
-	return pane;
+    }
+
+    /**
+     * Renders the previously configured plot into an image with Java2D. 
+     * Does not need the JavaFX toolkit, so it can be used without a display.
+     * Requires a PlotSpaceController to be set.
+     * @param width width of the image in pixels.
+     * @param height height of the image in pixels.
+     * @return ARGB image of the plot.
+     */
+    public BufferedImage render(int width, int height) {
+	BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+	Graphics2D g = image.createGraphics();
+	try {
+	    render(g, width, height);
+	} finally {
+	    g.dispose();
+	}
+	return image;
+    }
+
+    /**
+     * Renders the previously configured plot onto a Java2D graphics context.
+     * Requires a PlotSpaceController to be set.
+     * @param g graphics context, with the origin at the top left corner of the plot.
+     * @param width width of the plot in pixels.
+     * @param height height of the plot in pixels.
+     */
+    public void render(Graphics2D g, int width, int height) {
+	if (psController == null)
+	    return;
+
+	HeadlessFrame headless = new HeadlessFrame();
+	headless.setTitle(title);
+	headless.setHorizontalLabel(xlabel ? xlabelText : null);
+	headless.setVerticalLabel(ylabel ? ylabelText : null);
+	headless.setTickLength(innerTickLength(), outerTickLength());
+	headless.setAxisLocation(xLocation, yLocation);
+	headless.setBox(box);
+	headless.setGrid(grid);
+
+	psController.setPlotSpace(headless.getPlotSpace());
+	psController.display();
+	headless.setHorizontalDivisors(psController.getHDivPoints(),
+				       psController.getHDivLabels());
+	headless.setVerticalDivisors(psController.getVDivPoints(),
+				     psController.getVDivLabels());
+	headless.setOrigin(psController.getHOrigin(), psController.getVOrigin());
+	if (psController.isHOriginLineShown())
+	    headless.showHorizontalOriginLine();
+	if (psController.isVOriginLineShown())
+	    headless.showVerticalOriginLine();
+
+	headless.paint(g, width, height);
+	// the image is not updated later
+	psController.release(headless.getPlotSpace());
     }
 
     /**
@@ -368,6 +472,11 @@ public class FrameController {
      * @return reference to the Frame.
      */
     public Frame getFrame() {
+	if (frame == null) {
+	    frame = new Frame(); 
+	    hax = frame.getHorizontalAxis();
+	    vax = frame.getVerticalAxis();
+	}
 	return frame;
     }
 
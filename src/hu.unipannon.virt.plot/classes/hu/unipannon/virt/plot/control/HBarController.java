@@ -236,9 +236,7 @@ public class HBarController extends PlotSpaceController {
 	genDivPoints();
 
 	// turn on the zero line if needed
-	if (originY != 0) {
-	    plotSpace.getFrame().getVerticalAxis().showOriginLine();
-	}
+	vOriginLine = originY != 0;
 
 
 	
@@ -24,23 +24,127 @@ SOFTWARE.
 package hu.unipannon.virt.plot.control;
 
 
-import java.util.LinkedList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
+import javafx.scene.Node;
+
+import hu.unipannon.virt.plot.data.ExtremaIndex;
 import hu.unipannon.virt.plot.data.Line;
+import hu.unipannon.virt.plot.data.ObservableSamples;
+import hu.unipannon.virt.plot.data.Samples;
 import hu.unipannon.virt.plot.frame.Legend;
+import hu.unipannon.virt.plot.frame.Marker.MarkerType;
+import hu.unipannon.virt.plot.frame.PlotLayer;
+import hu.unipannon.virt.plot.frame.PlotSurface;
+import hu.unipannon.virt.plot.util.Decimator;
 
 /**
  * PlotSpaceController implementation responsible of handling a Line Plot.
  * Stores Line data items and displays them inside the given Plot Space.
+ * Lines without markers are decimated to the pixel columns of the Plot Space
+ * before display, and they are displayed again when its width changes.
+ * Lines with increasing X coordinates are clipped to the X limits first, so a
+ * zoomed window only reads and normalizes the samples inside it.
+ * <br>
+ * After display, every line is an addressable series of the Plot Space: a 
+ * line can be updated, replaced or hidden, and only its own graphical items
+ * are rebuilt. The axes are only updated if the extents of the data change.
+ * <br>
+ * Lines sharing their X coordinates (like the channels of a recording on the
+ * same time base) normalize them only once in a display pass.
+ * <br>
+ * Lines with observable samples are observed: a change only marks the line 
+ * and the controller dirty, and every dirty line is drawn again once when 
+ * the changes are applied.
  * 
  * @see Line
+ * @see Decimator
  * @author Tóth Bálint
  */
 public class LinePlotController extends PlotSpaceController {
 
     // line data (and style)
     private List<Line> lines;
+
+    // indices of the hidden lines
+    private Set<Integer> hiddenLines;
+
+    // data extremes (minx, maxx, miny, maxy) the divisors were generated for
+    private double[] extents;
+
+    // plot surfaces the lines are displayed on
+    private List<SeriesLayer> layers;
+
+    // true if the extents were computed by prepare for the next display
+    private boolean prepared;
+
+    // listeners of the observed samples, by line index
+    private List<Runnable> observers;
+
+    // indices of the lines changed since the changes were last applied
+    private Set<Integer> dirtyLines;
+
+    /**
+     * Layer of the plot surface that displays the lines again when the pixel
+     * columns of the surface change.
+     */
+    private class SeriesLayer implements PlotLayer {
+	private PlotSurface surface;
+	private int columns;
+
+	private SeriesLayer(PlotSurface surface) {
+	    this.surface = surface;
+	    this.columns = 0;
+	}
+
+	@Override
+	public void layout(double width, double height) {
+	    int c = (int)Math.ceil(width);
+	    if (c < 1 || c == columns)
+		return;
+	    columns = c;
+	    redisplay();
+	}
+
+	/**
+	 * Displays every line on the surface again.
+	 */
+	private void redisplay() {
+	    if (columns < 1)
+		return;
+	    // the controller can be displayed on more surfaces, use this one
+	    plotSpace = surface;
+	    surface.clearSeries();
+	    displayLines(columns);
+	    displayRefLines();
+	}
+
+	/**
+	 * Displays a single line on the surface again.
+	 * @param index index of the line.
+	 */
+	private void redisplay(int index) {
+	    if (columns < 1)
+		return;
+	    plotSpace = surface;
+	    surface.clearSeries(index);
+	    displayLine(index, columns);
+	}
+
+	@Override
+	public Node getNode() {
+	    return null;
+	}
+    }
     
     // static counter for the data line number
     private static int dataNum = 0;
@@ -65,42 +169,196 @@ public class LinePlotController extends PlotSpaceController {
      */
     public LinePlotController() {
 	super();
-	lines = new LinkedList<>();
+	lines = new ArrayList<>();
+	hiddenLines = new HashSet<>();
+	extents = null;
+	layers = new ArrayList<>();
+	prepared = false;
+	observers = new ArrayList<>();
+	dirtyLines = new HashSet<>();
     }
 
     /**
-     * Adds a line data item.
+     * Adds a line data item. The extremes of the line are not computed here,
+     * they are only needed for the limits that are not set manually, when 
+     * the plot is prepared.
      * @param l line to be displayed.
      */
     public void addLine(Line l) {
-	if (lines.size() == 0) {
-	    minx = l.getMinx();
-	    maxx = l.getMaxx();
-	    miny = l.getMiny();
-	    maxy = l.getMaxy();
+	int index = lines.size();
+	lines.add(l);
+	observers.add(() -> {
+		dirtyLines.add(index);
+		markDirty();
+	    });
+	observe(l, observers.get(index), true);
+    }
+
+    /**
+     * Adds or removes the listener of a line to its observable samples.
+     * @param l line data item.
+     * @param observer listener marking the line dirty.
+     * @param attach true to add the listener, false to remove it.
+     */
+    private static void observe(Line l, Runnable observer, boolean attach) {
+	List<Samples> samples = new ArrayList<>();
+	samples.add(l.getXSamples());
+	samples.add(l.getYSamples());
+	if (l.getLowerErrorLine() != null)
+	    samples.add(l.getLowerErrorLine().getYSamples());
+	if (l.getUpperErrorLine() != null)
+	    samples.add(l.getUpperErrorLine().getYSamples());
+	for (var s : samples) {
+	    if (!(s instanceof ObservableSamples))
+		continue;
+	    if (attach)
+		((ObservableSamples)s).addListener(observer);
+	    else
+		((ObservableSamples)s).removeListener(observer);
+	}
+    }
+
+    /**
+     * Query for a stored line.
+     * @param index index of the line, in the order the lines were added.
+     * @return line data item.
+     */
+    public Line getLine(int index) {
+	return lines.get(index);
+    }
+
+    /**
+     * Replaces a line. If the plot is already displayed, only the replaced 
+     * line is drawn again, unless the extents of the data change.
+     * @param index index of the line.
+     * @param l new line data item.
+     */
+    public void setLine(int index, Line l) {
+	observe(lines.get(index), observers.get(index), false);
+	lines.set(index, l);
+	observe(l, observers.get(index), true);
+	updateLine(index);
+    }
+
+    /**
+     * Draws a line again after its data points were changed. If the extents 
+     * of the data change, the divisor points are generated again, every line 
+     * is drawn again and the axes are notified.
+     * @param index index of the line.
+     */
+    public void updateLine(int index) {
+	updateLines(List.of(index));
+    }
+
+    /**
+     * Draws the lines changed since the last update again. The extents are
+     * checked once for all the changed lines.
+     */
+    @Override
+    protected void update() {
+	List<Integer> changed = new ArrayList<>(dirtyLines);
+	dirtyLines.removeAll(changed);
+	updateLines(changed);
+    }
+
+    /**
+     * Draws some lines again after their data points were changed. If the 
+     * extents of the data change, every line is drawn again instead.
+     * @param indices indices of the lines.
+     */
+    private void updateLines(Collection<Integer> indices) {
+	if (layers.isEmpty() || indices.isEmpty())
+	    return;
+	PlotSurface current = plotSpace;
+	// with manual limits the extremes of the lines are not needed
+	double[] e = manualXLim && manualYLim ? extents : dataExtents();
+	if (Arrays.equals(e, extents)) {
+	    for (var layer : layers)
+		for (var index : indices)
+		    layer.redisplay(index);
 	} else {
-	    if (l.getMinx() < minx) {
-		minx = l.getMinx();
-	    }
-	    if (l.getMaxx() > maxx) {
-		maxx = l.getMaxx();
-	    }
-	    if (l.getMiny() < miny) {
-		miny = l.getMiny();
-	    }
-	    if (l.getMaxy() > maxy) {
-		maxy = l.getMaxy();
+	    extents = e;
+	    applyExtents(e);
+	    originX = 0;
+	    originY = 0;
+	    genDivPoints();
+	    for (var layer : layers)
+		layer.redisplay();
+	    if (onAxesChanged != null)
+		onAxesChanged.run();
+	}
+	plotSpace = current;
+    }
+
+    /**
+     * Shows or hides a line, without drawing the others again.
+     * The extents of the plot do not change.
+     * @param index index of the line.
+     * @param visible visibility of the line.
+     */
+    public void setLineVisible(int index, boolean visible) {
+	if (visible)
+	    hiddenLines.remove(index);
+	else
+	    hiddenLines.add(index);
+	for (var layer : layers)
+	    layer.surface.setSeriesVisible(index, visible);
+    }
+
+    /**
+     * Sets the limits that are not given manually to the extents of the data.
+     * Empty or constant data gets a unit wide interval, like a live line 
+     * before its first samples.
+     * @param e minx, maxx, miny and maxy of the data.
+     */
+    private void applyExtents(double[] e) {
+	if (e == null)
+	    return;
+	if (!manualXLim) {
+	    minx = e[0];
+	    maxx = e[1] > e[0] ? e[1] : e[0] + 1;
+	}
+	if (!manualYLim) {
+	    miny = e[2];
+	    maxy = e[3] > e[2] ? e[3] : e[2] + 1;
+	}
+    }
+
+    /**
+     * Computes the extremes of the stored lines.
+     * @return minx, maxx, miny and maxy of the data.
+     */
+    private double[] dataExtents() {
+	// the extremes are computed in parallel, as they can scan the samples
+	lines.parallelStream().forEach(Line::getMinx);
+	double[] e = null;
+	for (var l : lines) {
+	    if (e == null) {
+		e = new double[] {l.getMinx(), l.getMaxx(), l.getMiny(), l.getMaxy()};
+	    } else {
+		e[0] = Math.min(e[0], l.getMinx());
+		e[1] = Math.max(e[1], l.getMaxx());
+		e[2] = Math.min(e[2], l.getMiny());
+		e[3] = Math.max(e[3], l.getMaxy());
 	    }
 	}
-	lines.add(l);
+	return e;
     }
 
     /**
      * Generates the divisor points for the line storage.
-     * Uses the whole interval that the lines span across.
+     * Uses the whole interval that the lines span across. If only the X limits
+     * are given, the Y interval is fitted to the points inside them.
      */
     @Override
     protected void genDivPoints() {
+	if (manualXLim && !manualYLim) {
+	    double[] visible = visibleYRange();
+	    if (visible != null && visible[1] > visible[0]) {
+		miny = visible[0];
+		maxy = visible[1];
+	    }
+	}
 	if (!manualXTick) {
 	    this.setXTickAuto(AxisGenerator.lpoints(minx,maxx));
 	}
@@ -114,6 +372,29 @@ public class LinePlotController extends PlotSpaceController {
 	    originY = -minx / (maxx-minx);
     }
 
+    /**
+     * Computes the extremes of the Y coordinates inside the X limits, with the 
+     * min/max summaries of the lines.
+     * @return miny and maxy of the visible points, null if no point is visible.
+     */
+    private double[] visibleYRange() {
+	List<double[]> ranges = lines.parallelStream()
+	    .map(l -> l.getYRange(minx, maxx))
+	    .collect(Collectors.toList());
+	double[] range = null;
+	for (var r : ranges) {
+	    if (r == null || !Double.isFinite(r[0]) || !Double.isFinite(r[1]))
+		continue;
+	    if (range == null) {
+		range = r;
+	    } else {
+		range[0] = Math.min(range[0], r[0]);
+		range[1] = Math.max(range[1], r[1]);
+	    }
+	}
+	return range;
+    }
+
     /**
      * Generates the legend based on the legend labels and the colors of the
      * lines.
@@ -146,46 +427,307 @@ public class LinePlotController extends PlotSpaceController {
 	return legend;
     }
 
+    /**
+     * Computes the extents of the lines and generates the divisor points. 
+     * The extremes of the lines are computed in parallel, and the plot space 
+     * is not touched, so it can be called from any thread before display.
+     * The lines themselves are prepared when the width of the Plot Space is 
+     * known.
+     */
+    @Override
+    public void prepare() {
+	// live lines can change between adding and displaying them, with 
+	// manual limits the extremes of the lines are not computed
+	extents = manualXLim && manualYLim ? null : dataExtents();
+	applyExtents(extents);
+	this.genDivPoints();
+	prepared = true;
+    }
+
     /**
      * Operates the graphics functions in the frame to produce a line plot.
+     * The lines are displayed in the first layout pass of the Plot Space, when
+     * its width is already known. The lines are clipped, decimated and 
+     * normalized in parallel, and only attached to the Plot Space on the 
+     * thread of the layout pass.
      */
     @Override
     public void display() {
-	// iterate & display
-	this.genDivPoints();
-        
-	for (var l : lines) {
-            if (l.isShowErrorArea()) {
-                plotSpace.addPatch(l.getNormalXs(minx,maxx),
-                                   l.getLowerErrorNormal(miny, maxy),
-                                   l.getUpperErrorNormal(miny,maxy), 
-                                   l.getErrorAreaColor());
-            }
-            if (l.isShowErrorLines()) {
-                plotSpace.addLine(l.getNormalXs(minx, maxx),
-                                  l.getLowerErrorNormal(miny,maxy),
-                                  l.getLowerErrorLine().getColor(),
-                                  l.getLowerErrorLine().getWidth(),
-                                  l.getLowerErrorLine().getStyle(),
-                                  l.getLowerErrorLine().getMarker());
-                plotSpace.addLine(l.getNormalXs(minx, maxx),
-                                  l.getUpperErrorNormal(miny,maxy),
-                                  l.getUpperErrorLine().getColor(),
-                                  l.getUpperErrorLine().getWidth(),
-                                  l.getUpperErrorLine().getStyle(),
-                                  l.getUpperErrorLine().getMarker());
-            }
-	    plotSpace.addLine(l.getNormalXs(minx,maxx),
-			      l.getNormalYs(miny,maxy),
-			      l.getColor(),
-			      l.getWidth(),
-			      l.getStyle(),
-			      l.getMarker());
-	}
-	displayRefLines();
+	if (!prepared)
+	    prepare();
+	// the next display follows the changes of the lines
+	prepared = false;
+
+	SeriesLayer layer = new SeriesLayer(plotSpace);
+	layers.add(layer);
+	plotSpace.addLayer(layer);
+
 	if (showLegend) {
 	    Legend legend = genLegend();
 	    addLegendToPosition(plotSpace,legend,legendLocation);
 	}
     }
+
+    /**
+     * Forgets a plot space the lines were displayed on.
+     * @param plotSpace plot space the controller was displayed on.
+     */
+    @Override
+    public void release(PlotSurface plotSpace) {
+	layers.removeIf(layer -> layer.surface == plotSpace);
+    }
+
+    /**
+     * Displays the lines with their error areas and error lines, decimated to 
+     * the current pixel columns of the Plot Space.
+     * @param columns number of pixel columns.
+     */
+    private void displayLines(int columns) {
+	// the lines are prepared in parallel, only attaching them to the 
+	// plot space is left to the calling thread
+	Map<Window, double[]> shared = new ConcurrentHashMap<>();
+	List<Prepared> series = IntStream.range(0, lines.size()).parallel()
+	    .mapToObj(i -> prepareLine(i, columns, shared))
+	    .collect(Collectors.toList());
+	for (int i=0;i<series.size();i++)
+	    commitLine(i, series.get(i));
+    }
+
+    /**
+     * Ready-to-draw normalized coordinates of a line and its error bounds.
+     */
+    private static class Prepared {
+	private final Line line;
+	private final double[] xs, ys, lower, upper;
+
+	private Prepared(Line line, double[] xs, double[] ys, double[] lower, double[] upper) {
+	    this.line = line;
+	    this.xs = xs;
+	    this.ys = ys;
+	    this.lower = lower;
+	    this.upper = upper;
+	}
+    }
+
+    /**
+     * Displayed range of a sequence of X coordinates, the key of the 
+     * normalized X coordinates shared in a display pass.
+     */
+    private static final class Window {
+	private final Samples xs;
+	private final int from, to;
+
+	private Window(Samples xs, int from, int to) {
+	    this.xs = xs;
+	    this.from = from;
+	    this.to = to;
+	}
+
+	@Override
+	public boolean equals(Object o) {
+	    if (!(o instanceof Window))
+		return false;
+	    Window other = (Window)o;
+	    return from == other.from && to == other.to && xs.equals(other.xs);
+	}
+
+	@Override
+	public int hashCode() {
+	    return (xs.hashCode() * 31 + from) * 31 + to;
+	}
+    }
+
+    /**
+     * Displays a line as an addressable series of the Plot Space.
+     * @param index index of the line.
+     * @param columns number of pixel columns.
+     */
+    private void displayLine(int index, int columns) {
+	commitLine(index, prepareLine(index, columns, null));
+    }
+
+    /**
+     * Clips, decimates and normalizes a line, without touching the Plot Space,
+     * so the lines can be prepared in parallel.
+     * @param index index of the line.
+     * @param columns number of pixel columns.
+     * @param shared normalized X coordinates of the pass, null if they are not shared.
+     * @return ready-to-draw coordinates of the line, null if no point of it is visible.
+     */
+    private Prepared prepareLine(int index, int columns, Map<Window, double[]> shared) {
+	Line l = lines.get(index);
+	boolean showError = l.isShowErrorArea() || l.isShowErrorLines();
+
+	int[] idx = null;
+	int from = 0, to = l.getXSamples().size();
+	if (l.isMonotonic()) {
+	    // lines are clipped to the window (with a guard point on both sides),
+	    // so only the samples of the window are read and normalized
+	    int[] range = Decimator.range(l.getXSamples(), minx, maxx);
+	    from = range[0];
+	    to = range[1];
+	    if (to <= from)
+		return null;
+	    // markers belong to the data points, so those lines are kept intact
+	    if (isDecimable(l))
+		idx = decimate(l, from, to, columns, showError);
+	    // the gaps of the line must survive the decimation, only the runs
+	    // of the window are needed
+	    if (idx != null) {
+		int[] runs = l.getRuns(from, to);
+		if (runs.length != 2 || runs[0] != from || runs[1] != to)
+		    idx = withGaps(idx, runs, from, to);
+	    }
+	}
+
+	// the points of a decimated line are its own, the others can share 
+	// the X coordinates with the lines of the same time base
+	double[] xs = idx != null ? l.getNormalXs(minx, maxx, idx) : normalXs(l, from, to, shared);
+	if (idx == null && to - from < l.getXSamples().size())
+	    idx = sequence(from, to);
+	double[] ys, lower = null, upper = null;
+	if (idx != null) {
+	    ys = l.getNormalYs(miny, maxy, idx);
+	    if (showError) {
+		lower = l.getLowerErrorNormal(miny, maxy, idx);
+		upper = l.getUpperErrorNormal(miny, maxy, idx);
+	    }
+	} else {
+	    ys = l.getNormalYs(miny, maxy);
+	    if (showError) {
+		lower = l.getLowerErrorNormal(miny, maxy);
+		upper = l.getUpperErrorNormal(miny, maxy);
+	    }
+	}
+	return new Prepared(l, xs, ys, lower, upper);
+    }
+
+    /**
+     * Attaches the prepared coordinates of a line to the Plot Space as an 
+     * addressable series.
+     * @param index index of the line.
+     * @param p prepared coordinates of the line, null if it is not visible.
+     */
+    private void commitLine(int index, Prepared p) {
+	plotSpace.beginSeries(index);
+	if (hiddenLines.contains(index))
+	    plotSpace.setSeriesVisible(index, false);
+	if (p == null)
+	    return;
+	Line l = p.line;
+	if (l.isShowErrorArea()) {
+	    plotSpace.addPatch(p.xs, p.lower, p.upper, l.getErrorAreaColor());
+	}
+	if (l.isShowErrorLines()) {
+	    plotSpace.addLine(p.xs,
+			      p.lower,
+			      l.getLowerErrorLine().getColor(),
+			      l.getLowerErrorLine().getWidth(),
+			      l.getLowerErrorLine().getStyle(),
+			      l.getLowerErrorLine().getMarker());
+	    plotSpace.addLine(p.xs,
+			      p.upper,
+			      l.getUpperErrorLine().getColor(),
+			      l.getUpperErrorLine().getWidth(),
+			      l.getUpperErrorLine().getStyle(),
+			      l.getUpperErrorLine().getMarker());
+	}
+	plotSpace.addLine(p.xs,
+			  p.ys,
+			  l.getColor(),
+			  l.getWidth(),
+			  l.getStyle(),
+			  l.getMarker());
+    }
+
+    /**
+     * Aggregates a range of a line to the pixel columns, on the stored samples
+     * so only the kept points have to be normalized.
+     * @return indices of the kept points, null if the range fits into the columns.
+     */
+    private int[] decimate(Line l, int from, int to, int columns, boolean showError) {
+	if (showError)
+	    return Decimator.m4(l.getXSamples(), from, to, minx, maxx, columns,
+				l.getYSamples(),
+				l.getLowerErrorLine().getYSamples(),
+				l.getUpperErrorLine().getYSamples());
+	// dense windows are aggregated with the min/max summary of the line,
+	// unless the samples change on every display, or building the summary
+	// would read much more than the window
+	if (to - from > (long)columns * ExtremaIndex.BLOCK
+	    && l.getYSamples().getVersion() == 0
+	    && l.prefersYIndex(from, to))
+	    return Decimator.m4(l.getXSamples(), from, to, minx, maxx, columns,
+				l.getYIndex());
+	return Decimator.m4(l.getXSamples(), from, to, minx, maxx, columns,
+			    l.getYSamples());
+    }
+
+    /**
+     * Adds the borders of the finite runs to the kept points, so the 
+     * gaps of a decimated line are still displayed.
+     * @param idx ascending indices of the kept points.
+     * @param runs start index and index after the end of every finite run.
+     * @param from index of the first point of the displayed range.
+     * @param to index after the last point of the displayed range.
+     * @return ascending indices of the kept points and the borders.
+     */
+    private static int[] withGaps(int[] idx, int[] runs, int from, int to) {
+	int[] borders = new int[2 * runs.length];
+	int count = 0;
+	for (int r=0;r<runs.length;r+=2) {
+	    // the points on both sides of the borders of the run
+	    int[] points = {runs[r] - 1, runs[r], runs[r+1] - 1, runs[r+1]};
+	    for (int p : points)
+		if (p >= from && p < to && (count == 0 || p > borders[count-1]))
+		    borders[count++] = p;
+	}
+	int[] merged = new int[idx.length + count];
+	int n = 0, i = 0, j = 0;
+	while (i < idx.length || j < count) {
+	    int next = j == count || (i < idx.length && idx[i] < borders[j]) ? idx[i++] : borders[j++];
+	    if (n == 0 || next != merged[n-1])
+		merged[n++] = next;
+	}
+	return Arrays.copyOf(merged, n);
+    }
+
+    /**
+     * Normalizes a range of the X coordinates of a line, or reuses them if a 
+     * line with the same X coordinates was already displayed in the pass.
+     * @param l line to be displayed.
+     * @param from index of the first displayed point.
+     * @param to index after the last displayed point.
+     * @param shared normalized X coordinates of the pass, null if they are not shared.
+     * @return normalized X coordinates of the range.
+     */
+    private double[] normalXs(Line l, int from, int to, Map<Window, double[]> shared) {
+	if (shared == null)
+	    return normalXs(l, from, to);
+	return shared.computeIfAbsent(new Window(l.getXSamples(), from, to),
+				      key -> normalXs(l, from, to));
+    }
+
+    private double[] normalXs(Line l, int from, int to) {
+	if (to - from < l.getXSamples().size())
+	    return l.getNormalXs(minx, maxx, sequence(from, to));
+	return l.getNormalXs(minx, maxx);
+    }
+
+    private static int[] sequence(int from, int to) {
+	int[] idx = new int[to - from];
+	for (int i=0;i<idx.length;i++)
+	    idx[i] = from + i;
+	return idx;
+    }
+
+    private static boolean isDecimable(Line l) {
+	if (l.getMarker() != MarkerType.NONE)
+	    return false;
+	if (l.isShowErrorLines()
+	    && (l.getLowerErrorLine().getMarker() != MarkerType.NONE
+		|| l.getUpperErrorLine().getMarker() != MarkerType.NONE))
+	    return false;
+	return true;
+    }
 }
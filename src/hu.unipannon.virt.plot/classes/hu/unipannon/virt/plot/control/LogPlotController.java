@@ -23,17 +23,27 @@ SOFTWARE.
 */
 package hu.unipannon.virt.plot.control;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 import hu.unipannon.virt.plot.data.Line;
+import hu.unipannon.virt.plot.data.Samples;
 import hu.unipannon.virt.plot.frame.Legend;
+import hu.unipannon.virt.plot.util.LogProjection;
 
 /**
  * PlotSpaceController implementation responsible of handling a Logarithmic Line 
  * Plot. Stores Line data items and displays them inside the given Plot Space. 
  * Operates the same way as a LinePlotController.
+ * The log transforms of the lines are computed in parallel by prepare, which
+ * can run outside the JavaFX thread before display.
+ * Non-positive values can not be displayed on a logarithmic axis, they are 
+ * gaps of the lines, and the axis starts at the lowest positive value.
  * 
  * @see Line
  * @see LinePlotController
@@ -47,6 +57,23 @@ public class LogPlotController extends PlotSpaceController {
 
     private double[] rawTicksX, rawTicksY;
 
+    // coordinates computed by prepare, null if they are not prepared
+    private List<Prepared> prepared = null;
+
+    /**
+     * Ready-to-draw normalized coordinates of a line.
+     */
+    private static class Prepared {
+	private final Line line;
+	private final double[] xs, ys;
+
+	private Prepared(Line line, double[] xs, double[] ys) {
+	    this.line = line;
+	    this.xs = xs;
+	    this.ys = ys;
+	}
+    }
+
     private static int dataNum = 0;
 
     private static int getDataLineNum() {
@@ -155,10 +182,6 @@ public class LogPlotController extends PlotSpaceController {
 	if (!manualYTick) {
 	    this.setYTick(AxisGenerator.lpoints(miny, maxy));
 	}
-	double logMinx = logN(logBaseX,minx);
-	double hspan = logN(logBaseX,maxx) - logMinx;
-	double logMiny = logN(logBaseY,miny);
-	double vspan = logN(logBaseY,maxy) - logMiny;
 	if (logBaseX == 0) {
 	    double span = maxx - minx;
 	    hDivPoints = Arrays.stream(rawTicksX)
@@ -167,10 +190,14 @@ public class LogPlotController extends PlotSpaceController {
 	    if (minx < 0 && maxx > 0)
 		originY = -minx / (maxx-minx);
 	} else {
-	    hDivPoints = Arrays.stream(rawTicksX)
-		.map(x -> logN(logBaseX,x))
-		.map(x -> (x - logMinx) / hspan)
-		.toArray();
+	    // the axis starts at the lowest positive value, and only the ticks
+	    // inside the limits can be displayed
+	    if (minx <= 0)
+		minx = positiveMin(Line::getXSamples);
+	    if (maxx <= minx)
+		maxx = minx * logBaseX;
+	    rawTicksX = positiveTicks(rawTicksX, minx, maxx);
+	    hDivPoints = LogProjection.project(rawTicksX, minx, maxx);
 	}
 
 	hDivLabels = Arrays.stream(rawTicksX)
@@ -185,10 +212,12 @@ public class LogPlotController extends PlotSpaceController {
 	    if (miny < 0 && maxy > 0)
 		originX = -miny / (maxy-miny);
 	} else {
-	    vDivPoints = Arrays.stream(rawTicksY)
-		.map(x -> logN(logBaseY,x))
-		.map(x -> (x - logMiny) / vspan)
-		.toArray();
+	    if (miny <= 0)
+		miny = positiveMin(Line::getYSamples);
+	    if (maxy <= miny)
+		maxy = miny * logBaseY;
+	    rawTicksY = positiveTicks(rawTicksY, miny, maxy);
+	    vDivPoints = LogProjection.project(rawTicksY, miny, maxy);
 	}
 
 	vDivLabels = Arrays.stream(rawTicksY)
@@ -196,6 +225,19 @@ public class LogPlotController extends PlotSpaceController {
 	    .toArray(String[]::new);
     }
 
+    /**
+     * Normalizes the X coordinates of event markers, with a logarithmic 
+     * transformation if the horizontal axis is logarithmic.
+     * @param xs X coordinates of the markers.
+     * @return normalized X coordinates.
+     */
+    @Override
+    protected double[] normalEventXs(double[] xs) {
+	if (logBaseX == 0)
+	    return super.normalEventXs(xs);
+	return LogProjection.project(xs, minx, maxx);
+    }
+
     /**
      * Generates the legend based on the legend labels and the colors of the
      * lines.
@@ -228,40 +270,53 @@ public class LogPlotController extends PlotSpaceController {
 	return legend;
     }
 
+    /**
+     * Generates the divisor points and computes the normalized, log 
+     * transformed coordinates of every line in parallel. Does not touch the 
+     * plot space, so it can be called from any thread before display.
+     */
+    @Override
+    public void prepare() {
+	genDivPoints();
+	List<Line> snapshot = new ArrayList<>(lines);
+	prepared = IntStream.range(0, snapshot.size()).parallel()
+	    .mapToObj(i -> prepare(snapshot.get(i)))
+	    .collect(Collectors.toList());
+    }
+
+    /**
+     * Normalizes a line, with a logarithmic transformation on the axes whose
+     * logarithm base is not 0.
+     * @param l line to be displayed.
+     * @return ready-to-draw coordinates of the line.
+     */
+    private Prepared prepare(Line l) {
+	double[] xs = logBaseX != 0
+	    ? l.getLogNormalXs(minx,maxx,logBaseX)
+	    : l.getNormalXs(minx,maxx);
+	double[] ys = logBaseY != 0
+	    ? l.getLogNormalYs(miny,maxy,logBaseY)
+	    : l.getNormalYs(miny,maxy);
+	return new Prepared(l, xs, ys);
+    }
+
     /**
      * Operates the graphics functions in the frame to produce a line plot.
+     * Only attaches the prepared coordinates to the plot space.
      */
     @Override
     public void display() {
-	genDivPoints();
-	// loglog
-	if (logBaseX != 0 && logBaseY != 0) 
-	    for (var l : lines)
-		plotSpace.addLine(l.getLogNormalXs(minx,maxx,logBaseX),
-				  l.getLogNormalYs(miny,maxy,logBaseY),
-				  l.getColor(),
-				  l.getWidth(),
-				  l.getStyle(),
-				  l.getMarker());
-	// semilogx
-	else if (logBaseX != 0 && logBaseY == 0)
-	    for (var l : lines)
-		plotSpace.addLine(l.getLogNormalXs(minx,maxx,logBaseX),
-				  l.getNormalYs(miny,maxy),
-				  l.getColor(),
-				  l.getWidth(),
-				  l.getStyle(),
-				  l.getMarker());
-
-	// semilogy
-	else if (logBaseX == 0 && logBaseY != 0)
-	    for (var l : lines)
-		plotSpace.addLine(l.getNormalXs(minx,maxx),
-				  l.getLogNormalYs(miny,maxy,logBaseY),
-				  l.getColor(),
-				  l.getWidth(),
-				  l.getStyle(),
-				  l.getMarker());
+	if (prepared == null)
+	    prepare();
+	for (var p : prepared)
+	    plotSpace.addLine(p.xs,
+			      p.ys,
+			      p.line.getColor(),
+			      p.line.getWidth(),
+			      p.line.getStyle(),
+			      p.line.getMarker());
+	// the next display follows the changes of the lines
+	prepared = null;
 
 	displayRefLines();
 	if (showLegend) {
@@ -270,8 +325,32 @@ public class LogPlotController extends PlotSpaceController {
 	}
     }
     
-    private double logN(int logBase, double x) {
-	return Math.log(x) / Math.log(logBase);
+    /**
+     * Computes the lowest positive coordinate of the lines, the lowest value 
+     * that can be displayed on a logarithmic axis.
+     * @param coords coordinates of a line.
+     * @return lowest positive coordinate, 1 if there is none.
+     */
+    private double positiveMin(Function<Line, Samples> coords) {
+	double min = lines.parallelStream()
+	    .mapToDouble(l -> LogProjection.positiveMin(coords.apply(l)))
+	    .min()
+	    .orElse(Double.POSITIVE_INFINITY);
+	return Double.isInfinite(min) ? 1 : min;
+    }
+
+    /**
+     * Masks the ticks that can not be displayed on a logarithmic axis.
+     * @param ticks tick values.
+     * @param min lower limit of the axis.
+     * @param max upper limit of the axis.
+     * @return ticks inside the limits, or the limits if there are none.
+     */
+    private static double[] positiveTicks(double[] ticks, double min, double max) {
+	double[] masked = Arrays.stream(ticks)
+	    .filter(x -> x >= min && x <= max)
+	    .toArray();
+	return masked.length > 0 ? masked : new double[] {min, max};
     }
     
 }
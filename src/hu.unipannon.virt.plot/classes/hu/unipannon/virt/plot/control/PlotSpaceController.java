@@ -23,17 +23,20 @@ SOFTWARE.
 */
 package hu.unipannon.virt.plot.control;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.stream.IntStream;
 
 import javafx.geometry.HPos;
 import javafx.geometry.VPos;
 import javafx.scene.paint.Paint;
 import hu.unipannon.virt.plot.data.Line;
+import hu.unipannon.virt.plot.data.Samples;
 import hu.unipannon.virt.plot.frame.Legend;
 import hu.unipannon.virt.plot.frame.Marker.MarkerType;
-import hu.unipannon.virt.plot.frame.PlotSpace;
+import hu.unipannon.virt.plot.frame.PlotSurface;
 import hu.unipannon.virt.plot.frame.StrokeStyle;
 
 /**
@@ -62,7 +65,7 @@ public abstract class PlotSpaceController {
 	CENTER
     }
 
-    protected PlotSpace plotSpace;
+    protected PlotSurface plotSpace;
 
     protected String[] names;
 
@@ -75,6 +78,18 @@ public abstract class PlotSpaceController {
     protected double minx, maxx, miny, maxy;
     protected double originX, originY;
 
+    // zero lines requested from the frame
+    protected boolean hOriginLine, vOriginLine;
+
+    // series identifier of the reference lines
+    protected static final int REFERENCE_SERIES = -1;
+
+    // called when the divisors change after display
+    protected Runnable onAxesChanged;
+
+    // true if observed data changed since the changes were last applied
+    private boolean dirty;
+
     protected boolean
 	manualXTick, manualYTick,
 	manualXLab, manualYLab,
@@ -110,12 +125,87 @@ public abstract class PlotSpaceController {
          * @param style style of the line.
          */
 	public RefLine(double m, double b, Paint color, double width, StrokeStyle style) {
-	    line = new Line(null,null,color,width,style,MarkerType.NONE);
+	    line = new Line((Samples)null,(Samples)null,color,width,style,MarkerType.NONE);
 	    this.m = m;
 	    this.b = b;
 	}
     }
 
+    /**
+     * Class to store vertical event markers, like the stimulus onsets or the 
+     * artifacts annotated on a recording. Thousands of markers can be stored, 
+     * they are not reference lines: the times are sorted once, so the markers 
+     * inside the displayed X interval are found with binary search, and they 
+     * are drawn together as a single shape.
+     */
+    public static class EventMarkers {
+	private double[] times;
+	private String[] labels;
+	private Paint color;
+	private double width;
+	private StrokeStyle style;
+
+        /**
+         * Creates event markers at the given times, with the given properties.
+         * The arrays are copied.
+         * @param times X coordinates of the markers.
+         * @param labels texts of the markers in the order of the times, or null.
+         * @param color color of the markers.
+         * @param width width of the markers in points.
+         * @param style style of the markers.
+         */
+	public EventMarkers(double[] times, String[] labels, Paint color, double width, StrokeStyle style) {
+	    if (labels != null && labels.length != times.length) {
+		System.err.println("The number of event labels and times differ, the labels are ignored.");
+		labels = null;
+	    }
+	    // annotations are usually sorted already
+	    boolean sorted = true;
+	    for (int i=1;i<times.length && sorted;i++)
+		sorted = times[i-1] <= times[i];
+	    if (sorted) {
+		this.times = times.clone();
+		this.labels = labels == null ? null : labels.clone();
+	    } else {
+		final double[] t = times;
+		int[] order = IntStream.range(0, times.length)
+		    .boxed()
+		    .sorted((a, b) -> Double.compare(t[a], t[b]))
+		    .mapToInt(Integer::intValue)
+		    .toArray();
+		this.times = new double[order.length];
+		this.labels = labels == null ? null : new String[order.length];
+		for (int i=0;i<order.length;i++) {
+		    this.times[i] = times[order[i]];
+		    if (labels != null)
+			this.labels[i] = labels[order[i]];
+		}
+	    }
+	    this.color = color;
+	    this.width = width;
+	    this.style = style;
+	}
+
+	/**
+	 * Index of the first marker that is not before the given time.
+	 * @param t time.
+	 * @param inclusive true if a marker at the time itself is counted.
+	 * @return index of the marker, the number of markers if there is none.
+	 */
+	private int search(double t, boolean inclusive) {
+	    int low = 0;
+	    int high = times.length;
+	    while (low < high) {
+		int mid = (low + high) >>> 1;
+		if (times[mid] < t || (!inclusive && times[mid] == t))
+		    low = mid + 1;
+		else
+		    high = mid;
+	    }
+	    return low;
+	}
+    }
+
     /**
      * Drop-in type for a multiple return value function.
      * Represents an optional point.
@@ -133,6 +223,7 @@ public abstract class PlotSpaceController {
 
     private List<RefLine> hReferenceLines;
     private List<RefLine> vReferenceLines;
+    private List<EventMarkers> eventMarkers;
     
 
     /**
@@ -147,6 +238,12 @@ public abstract class PlotSpaceController {
 	originX = 0;
 	originY = 0;
 
+	hOriginLine = false;
+	vOriginLine = false;
+
+	onAxesChanged = null;
+	dirty = false;
+
 	manualXTick = false;
 	manualYTick = false;
 	manualXLab = false;
@@ -156,16 +253,76 @@ public abstract class PlotSpaceController {
 
 	hReferenceLines = new LinkedList<>();
 	vReferenceLines = new LinkedList<>();
+	eventMarkers = new ArrayList<>();
     }
 
     /**
-     * Sets the stored plot space object.
+     * Sets the stored plot space object. It can be the Plot Space of a Frame,
+     * or any other surface implementing the same drawing contract.
      * @param plotSpace plot space.
      */
-    public void setPlotSpace(PlotSpace plotSpace) {
+    public void setPlotSpace(PlotSurface plotSpace) {
 	this.plotSpace = plotSpace;
     }
 
+    /**
+     * Sets the action that is called when the data of a displayed plot 
+     * changes its extents, so the divisor points and the origins need to be 
+     * applied to the axes again.
+     * @param action action updating the axes, or null.
+     */
+    public void setOnAxesChanged(Runnable action) {
+	this.onAxesChanged = action;
+    }
+
+    /**
+     * Forgets a plot space the controller was displayed on, so later updates 
+     * of the data are not drawn onto it. Controllers that do not update their
+     * plots after display can ignore it.
+     * @param plotSpace plot space the controller was displayed on.
+     */
+    public void release(PlotSurface plotSpace) {
+    }
+
+    /**
+     * Marks the controller dirty after a change of its observed data. It only
+     * sets a flag, so it can be called at any rate, the changes are drawn by 
+     * the next <code>applyChanges</code> call. Like the observed data, it is
+     * only called on the JavaFX thread.
+     */
+    public void markDirty() {
+	dirty = true;
+    }
+
+    /**
+     * Query for pending changes of the observed data.
+     * @return true if the controller is marked dirty.
+     */
+    public boolean isDirty() {
+	return dirty;
+    }
+
+    /**
+     * Draws the pending changes of the observed data, if there are any.
+     * Called on the JavaFX thread, at most once per pulse by the figure of 
+     * the plot, so any number of changes between two pulses is drawn once.
+     * @return true if there were pending changes.
+     */
+    public boolean applyChanges() {
+	if (!dirty)
+	    return false;
+	dirty = false;
+	update();
+	return true;
+    }
+
+    /**
+     * Draws the changed data again after the controller was marked dirty.
+     * Controllers that do not observe their data do nothing here.
+     */
+    protected void update() {
+    }
+
     /**
      * Sets the text values for the legend to display.
      * The items given in the list appeare from top to bottom.
@@ -272,7 +429,7 @@ public abstract class PlotSpaceController {
     }
     
   
-    protected void addLegendToPosition(PlotSpace plotSpace,
+    protected void addLegendToPosition(PlotSurface plotSpace,
 				       Legend legend,
 				       LegendLocation location) {
 	switch (legendLocation) {
@@ -350,10 +507,66 @@ public abstract class PlotSpaceController {
 	vReferenceLines.add(l);
     }
 
+    /**
+     * Adds vertical event markers at the given X coordinates.
+     * @param times X coordinates of the markers.
+     * @param labels texts of the markers in the order of the times, or null.
+     * @param color color of the markers.
+     * @param width width of the markers in points.
+     * @param style style of the markers.
+     */
+    public void addEventMarkers(double[] times, String[] labels, Paint color, double width, StrokeStyle style) {
+	eventMarkers.add(new EventMarkers(times, labels, color, width, style));
+    }
+
+    /**
+     * Adds vertical event markers described by the given event markers object.
+     * @param m object storing the times and the properties of the markers.
+     */
+    public void addEventMarkers(EventMarkers m) {
+	eventMarkers.add(m);
+    }
+
     // to call this function, min and max values must already be set to their final values
     protected void displayRefLines() {
+	plotSpace.beginSeries(REFERENCE_SERIES);
 	displayHRefLines();
 	displayVRefLines();
+	displayEventMarkers();
+    }
+
+    /**
+     * Displays the event markers inside the current X interval. The visible 
+     * markers are found with binary search, so markers outside a zoomed 
+     * window cost nothing.
+     */
+    private void displayEventMarkers() {
+	if (!(maxx > minx))
+	    return;
+	for (var m : eventMarkers) {
+	    int from = m.search(minx, true);
+	    int to = m.search(maxx, false);
+	    if (from >= to)
+		continue;
+	    plotSpace.addEventMarkers(normalEventXs(Arrays.copyOfRange(m.times, from, to)),
+				      m.labels == null ? null : Arrays.copyOfRange(m.labels, from, to),
+				      m.color,
+				      m.width,
+				      m.style);
+	}
+    }
+
+    /**
+     * Normalizes the X coordinates of event markers inside the X limits.
+     * Plots with a transformed horizontal axis override it.
+     * @param xs X coordinates of the markers, normalized in place.
+     * @return normalized X coordinates.
+     */
+    protected double[] normalEventXs(double[] xs) {
+	double span = maxx - minx;
+	for (int i=0;i<xs.length;i++)
+	    xs[i] = (xs[i] - minx) / span;
+	return xs;
     }
 
     private void displayVRefLines() {
@@ -488,8 +701,20 @@ public abstract class PlotSpaceController {
      */
     protected abstract void genDivPoints();
     
+    /**
+     * Computes the ready-to-draw coordinates of the series without touching 
+     * the plot space, so it can be called from any thread before display.
+     * The series are prepared in parallel on the common ForkJoinPool, and 
+     * display only attaches the prepared coordinates to the plot space.
+     * Plots without expensive preparation do nothing here.
+     */
+    public void prepare() {
+    }
+
     /**
      * Finalises every initialisation steps and genereate the inner plot space object.
+     * Uses the coordinates of the last prepare call, or prepares them if they
+     * are not prepared yet.
      */
     public abstract void display();
 
@@ -542,6 +767,22 @@ public abstract class PlotSpaceController {
 	return originY;
     }
 
+    /**
+     * Query for the zero line of the horizontal axis. 
+     * @return true if the plot requires the horizontal origin line to be shown.
+     */
+    public boolean isHOriginLineShown() {
+	return hOriginLine;
+    }
+
+    /**
+     * Query for the zero line of the vertical axis. 
+     * @return true if the plot requires the vertical origin line to be shown.
+     */
+    public boolean isVOriginLineShown() {
+	return vOriginLine;
+    }
+
     private IntersectPoint lineLine(double fixStartX, double fixStartY, double fixEndX, double fixEndY,
 			     double varStartX, double varStartY, double varEndX, double varEndY) {
 	double uA
@@ -23,8 +23,11 @@ SOFTWARE.
 */
 package hu.unipannon.virt.plot.control;
 
-import java.util.LinkedList;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 import hu.unipannon.virt.plot.data.ScatterData;
 import hu.unipannon.virt.plot.frame.Legend;
@@ -32,6 +35,8 @@ import hu.unipannon.virt.plot.frame.Legend;
 /**
  * PlotSpaceController implementation responsible of handling a Scatter Plot.
  * Stores Scatter Data items and displays them in the given plot space.
+ * The series are normalized in parallel by prepare, which can run outside the
+ * JavaFX thread before display.
  * 
  * @see ScatterData
  * @author Tóth Bálint
@@ -57,48 +62,73 @@ public class ScatterPlotController extends PlotSpaceController {
 
     private List<ScatterData> lines;
 
+    // coordinates computed by prepare, null if they are not prepared
+    private List<Prepared> prepared = null;
+
+    /**
+     * Ready-to-draw normalized coordinates of a data series.
+     */
+    private static class Prepared {
+	private final ScatterData data;
+	private final double[] xs, ys;
+
+	private Prepared(ScatterData data, double[] xs, double[] ys) {
+	    this.data = data;
+	    this.xs = xs;
+	    this.ys = ys;
+	}
+    }
+
     /**
      * Default constructs a PlotSpaceController and inits the line storage.
      */
     public ScatterPlotController() {
 	super();
-	lines = new LinkedList<>();
+	lines = new ArrayList<>();
     }
 
     /**
-     * Adds a scatter data object.
+     * Adds a scatter data object. The extents of the series are not scanned 
+     * here, they are collected once when the plot is prepared.
      * @param l scatter data line.
      */
     public void addData(ScatterData l) {
-	if (lines.size() == 0) {
-	    minx = l.getMinx();
-	    maxx = l.getMaxx();
-	    miny = l.getMiny();
-	    maxy = l.getMaxy();
-	    genDivPoints();
-	} else {
-	    boolean genNew = false;
-	    if (l.getMinx() < minx) {
-		minx = l.getMinx();
-		genNew = true;
-	    }
-	    if (l.getMaxx() > maxx) {
-		maxx = l.getMaxx();
-		genNew = true;
-	    }
-	    if (l.getMiny() < miny) {
-		miny = l.getMiny();
-		genNew = true;
-	    }
-	    if (l.getMaxy() > maxy) {
-		maxy = l.getMaxy();
-		genNew = true;
-	    }
-	    if (genNew) {
-		genDivPoints();
-	    }
-	}
 	lines.add(l);
+	prepared = null;
+    }
+
+    /**
+     * Adds multiple scatter data objects at once.
+     * @param data scatter data lines.
+     */
+    public void addData(Collection<ScatterData> data) {
+	lines.addAll(data);
+	prepared = null;
+    }
+
+    /**
+     * Collects the extents of the data series with a parallel reduction.
+     * The limits set manually are kept.
+     */
+    private void computeExtents() {
+	if (manualXLim && manualYLim)
+	    return;
+	double[] e = lines.parallelStream()
+	    .map(l -> new double[] {l.getMinx(), l.getMaxx(),
+				    l.getMiny(), l.getMaxy()})
+	    .reduce((a, b) -> new double[] {Math.min(a[0], b[0]),
+					    Math.max(a[1], b[1]),
+					    Math.min(a[2], b[2]),
+					    Math.max(a[3], b[3])})
+	    .get();
+	if (!manualXLim) {
+	    minx = e[0];
+	    maxx = e[1];
+	}
+	if (!manualYLim) {
+	    miny = e[2];
+	    maxy = e[3];
+	}
     }
 
     /**
@@ -148,18 +178,55 @@ public class ScatterPlotController extends PlotSpaceController {
 	    originY = -minx / (maxx-minx);
     }
 
+    /**
+     * Computes the extents, the divisor points and the normalized coordinates 
+     * of every data series in parallel.
+     * Does not touch the plot space, so it can be called from any thread 
+     * before display.
+     */
+    @Override
+    public void prepare() {
+	List<ScatterData> snapshot = new ArrayList<>(lines);
+	if (!snapshot.isEmpty()) {
+	    computeExtents();
+	    genDivPoints();
+	}
+	prepared = IntStream.range(0, snapshot.size()).parallel()
+	    .mapToObj(i -> {
+		    ScatterData l = snapshot.get(i);
+		    return new Prepared(l,
+					l.getNormalXs(minx, maxx),
+					l.getNormalYs(miny, maxy));
+		})
+	    .collect(Collectors.toList());
+    }
+
     /**
      * Operates the graphics functions in the frame to produce a scatter plot.
+     * Series with a density mapping are displayed as a density raster.
+     * Only attaches the prepared coordinates to the plot space.
      */
     @Override
     public void display() {
-	for (var l : lines) {
-	    plotSpace.addScatter(l.getNormalXs(minx, maxx),
-				 l.getNormalYs(miny, maxy),
+	if (prepared == null)
+	    prepare();
+	for (var p : prepared) {
+	    ScatterData l = p.data;
+	    if (l.getDensity() != null) {
+		plotSpace.addDensity(p.xs,
+				     p.ys,
+				     l.getColor()[0],
+				     l.getDensity());
+		continue;
+	    }
+	    plotSpace.addScatter(p.xs,
+				 p.ys,
 				 l.getSize(),
 				 l.getColor(),
 				 l.getMarker());
 	}
+	// the next display follows the changes of the data
+	prepared = null;
 	displayRefLines();
 	if (showLegend) {
 	    Legend legend = genLegend();
@@ -86,6 +86,10 @@ public class AxesSettings {
      * List of horizontal based reference lines.
      */
     public List<PlotSpaceController.RefLine> vRefLines;
+    /**
+     * List of vertical event markers.
+     */
+    public List<PlotSpaceController.EventMarkers> eventMarkers;
 
     /**
      * Default constructor, sets every field tu null, empty or 0.
@@ -104,6 +108,7 @@ public class AxesSettings {
 
 	hRefLines = new LinkedList<>();
 	vRefLines = new LinkedList<>();
+	eventMarkers = new LinkedList<>();
     }
 
     // interface
@@ -135,5 +140,9 @@ public class AxesSettings {
 	for (var l : vRefLines) {
 	    controller.addVRefLine(l);
 	}
+
+	for (var m : eventMarkers) {
+	    controller.addEventMarkers(m);
+	}
     }
 }
@@ -0,0 +1,176 @@
+/*
+MIT License
+
+Copyright (c) 2023 Electrical Brain Imaging Lab
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+*/
+package hu.unipannon.virt.plot.data;
+
+/**
+ * Precomputed min/max summary of a sequence of samples, that answers the 
+ * extremes of any index range in logarithmic time.
+ * The summary has multiple levels, a level stores the index of the minimal and
+ * the maximal sample of every block of the level below it, so a range is 
+ * covered by at most two partial blocks on every level.<br>
+ * Used to autoscale and decimate a window of large data series without 
+ * scanning every sample in the window.
+ * 
+ * @see Line
+ * @author Tóth Bálint
+ */
+public class ExtremaIndex {
+
+    /**
+     * Number of items summarized by a block.
+     */
+    public static final int BLOCK = 64;
+
+    private final Samples values;
+
+    // index of the min and max sample of every block, per level
+    private final int[][] mins;
+    private final int[][] maxs;
+
+    /**
+     * Builds the summary of the given samples. The samples must not change 
+     * while the summary is used.
+     * @param values samples to be summarized.
+     */
+    public ExtremaIndex(Samples values) {
+	this.values = values;
+	int levels = 0;
+	for (long size = values.size(); size > 1; size = (size + BLOCK - 1) / BLOCK)
+	    levels++;
+	mins = new int[levels][];
+	maxs = new int[levels][];
+
+	int count = values.size();
+	for (int level=0;level<levels;level++) {
+	    int blocks = (count + BLOCK - 1) / BLOCK;
+	    mins[level] = new int[blocks];
+	    maxs[level] = new int[blocks];
+	    for (int b=0;b<blocks;b++) {
+		int from = b * BLOCK;
+		int to = Math.min(count, from + BLOCK);
+		int min = item(level - 1, from, true);
+		int max = item(level - 1, from, false);
+		for (int i=from+1;i<to;i++) {
+		    min = smaller(min, item(level - 1, i, true));
+		    max = larger(max, item(level - 1, i, false));
+		}
+		mins[level][b] = min;
+		maxs[level][b] = max;
+	    }
+	    count = blocks;
+	}
+    }
+
+    /**
+     * Query for the index of the minimal sample in a range. Non-finite samples
+     * are ignored, unless the range has no finite sample.
+     * @param from index of the first sample of the range.
+     * @param to index after the last sample of the range.
+     * @return index of the minimal sample, -1 if the range is empty.
+     */
+    public int argMin(int from, int to) {
+	return query(from, to, true);
+    }
+
+    /**
+     * Query for the index of the maximal sample in a range. Non-finite samples
+     * are ignored, unless the range has no finite sample.
+     * @param from index of the first sample of the range.
+     * @param to index after the last sample of the range.
+     * @return index of the maximal sample, -1 if the range is empty.
+     */
+    public int argMax(int from, int to) {
+	return query(from, to, false);
+    }
+
+    /**
+     * Query for the minimal sample in a range.
+     * @param from index of the first sample of the range.
+     * @param to index after the last sample of the range, must be greater than from.
+     * @return minimal value in the range, non-finite if the range has no finite sample.
+     */
+    public double min(int from, int to) {
+	return values.get(argMin(from, to));
+    }
+
+    /**
+     * Query for the maximal sample in a range.
+     * @param from index of the first sample of the range.
+     * @param to index after the last sample of the range, must be greater than from.
+     * @return maximal value in the range, non-finite if the range has no finite sample.
+     */
+    public double max(int from, int to) {
+	return values.get(argMax(from, to));
+    }
+
+    private int query(int from, int to, boolean min) {
+	int best = -1;
+	int level = -1;
+	while (from < to) {
+	    if (to - from < BLOCK || level + 1 >= mins.length) {
+		for (int i=from;i<to;i++)
+		    best = pick(best, item(level, i, min), min);
+		break;
+	    }
+	    // partial blocks at the ends, the rest is covered by the next level
+	    for (;from % BLOCK != 0;from++)
+		best = pick(best, item(level, from, min), min);
+	    for (;to % BLOCK != 0;)
+		best = pick(best, item(level, --to, min), min);
+	    from /= BLOCK;
+	    to /= BLOCK;
+	    level++;
+	}
+	return best;
+    }
+
+    /**
+     * Query for the sample index represented by an item of a level.
+     * The level -1 contains the samples themselves.
+     */
+    private int item(int level, int i, boolean min) {
+	if (level < 0)
+	    return i;
+	return min ? mins[level][i] : maxs[level][i];
+    }
+
+    private int pick(int best, int candidate, boolean min) {
+	if (best < 0)
+	    return candidate;
+	return min ? smaller(best, candidate) : larger(best, candidate);
+    }
+
+    // non-finite samples are missing, they are replaced by any finite sample
+    private int smaller(int a, int b) {
+	double va = values.get(a);
+	double vb = values.get(b);
+	return Double.isFinite(vb) && (vb < va || !Double.isFinite(va)) ? b : a;
+    }
+
+    private int larger(int a, int b) {
+	double va = values.get(a);
+	double vb = values.get(b);
+	return Double.isFinite(vb) && (vb > va || !Double.isFinite(va)) ? b : a;
+    }
+}
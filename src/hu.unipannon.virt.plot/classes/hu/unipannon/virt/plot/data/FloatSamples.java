@@ -0,0 +1,108 @@
+/*
+MIT License
+
+Copyright (c) 2023 Electrical Brain Imaging Lab
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+*/
+package hu.unipannon.virt.plot.data;
+
+/**
+ * Samples stored in a float array. The values are widened to double when they
+ * are read, so the data series take half the memory of the double backed ones.
+ * The samples can also be a strided view of a larger buffer, like a channel of
+ * interleaved multichannel frames, which is read through the stride without 
+ * copying the channel out of the buffer.
+ * 
+ * @see Samples
+ * @author Tóth Bálint
+ */
+public class FloatSamples implements Samples {
+
+    private final float[] values;
+    private final int offset;
+    private final int length;
+    private final int stride;
+
+    /**
+     * Wraps a float array without copying it.
+     * @param values values of the samples.
+     */
+    public FloatSamples(float[] values) {
+	this(values, 0, values.length, 1);
+    }
+
+    /**
+     * Creates a strided view of a float array without copying it.
+     * The sample i of the view is the element offset + i * stride of the buffer.
+     * @param buffer array containing the samples.
+     * @param offset index of the first sample in the buffer.
+     * @param length number of samples in the view.
+     * @param stride distance of consecutive samples in the buffer, the number of channels for interleaved frames.
+     */
+    public FloatSamples(float[] buffer, int offset, int length, int stride) {
+	if (offset < 0 || length < 0 || stride < 1
+	    || (length > 0 && offset + (long)(length - 1) * stride >= buffer.length))
+	    throw new IllegalArgumentException("The view exceeds the buffer.");
+	this.values = buffer;
+	this.offset = offset;
+	this.length = length;
+	this.stride = stride;
+    }
+
+    @Override
+    public int size() {
+	return length;
+    }
+
+    @Override
+    public double get(int index) {
+	return values[offset + index * stride];
+    }
+
+    @Override
+    public Samples select(int[] indices) {
+	float[] selected = new float[indices.length];
+	for (int i=0;i<indices.length;i++)
+	    selected[i] = values[offset + indices[i] * stride];
+	return new FloatSamples(selected);
+    }
+
+    /**
+     * Views of the same buffer with the same layout are equal, so lines 
+     * sharing a buffer can be recognized even if they wrap it separately.
+     * @param o other object.
+     * @return true if o views the same elements of the same buffer.
+     */
+    @Override
+    public boolean equals(Object o) {
+	if (this == o)
+	    return true;
+	if (!(o instanceof FloatSamples))
+	    return false;
+	FloatSamples other = (FloatSamples)o;
+	return values == other.values && offset == other.offset
+	    && length == other.length && stride == other.stride;
+    }
+
+    @Override
+    public int hashCode() {
+	return ((System.identityHashCode(values) * 31 + offset) * 31 + length) * 31 + stride;
+    }
+}
@@ -25,23 +25,53 @@ package hu.unipannon.virt.plot.data;
 
 import hu.unipannon.virt.plot.frame.Marker;
 import hu.unipannon.virt.plot.frame.StrokeStyle;
+import hu.unipannon.virt.plot.util.Decimator;
+import hu.unipannon.virt.plot.util.LogProjection;
 import java.util.Arrays;
 
 import javafx.scene.paint.Paint;
 
 /** 
- * Data class to store a line as two arrays of double.
+ * Data class to store a line as two sequences of samples.
+ * The samples can be stored in double or float arrays (see Samples), and they 
+ * are only converted to double when they are normalized.
  * This class handles the normalization and computation of the extremum points.
+ * The normalized arrays are cached for the last queried window, so displaying
+ * the same line again does not project the data points again. The returned 
+ * normalized arrays are shared, so they must not be modified.<br>
+ * The extremum points are computed when they are first queried, so lines of 
+ * file backed samples can be created without reading the samples.<br>
+ * Uniformly sampled lines store their X coordinates as LinearSamples 
+ * (x0 + i * dx), which are not stored in an array, and which are normalized
+ * arithmetically.<br>
+ * The cached data is dropped when the version of the samples changes, so a 
+ * line of live RingSamples follows the appended samples.<br>
+ * Non-finite (NaN) data points are gaps of the line, they are ignored by the 
+ * extremes, and the finite runs between them are recorded in the same pass.
+ * The error bounds share the X coordinates of the line, so their X extremes
+ * and their monotonicity are taken from the line instead of checking them again.
  * 
  * @author Tóth Bálint
  */
 public class Line {
     // data
-    private double[] xs;
-    private double[] ys;
+    private Samples xs;
+    private Samples ys;
     
-    // extremes
+    // extremes, computed when they are first queried
     private double minx, maxx, miny, maxy;
+    private boolean extremesValid = false;
+
+    // min/max summary of the Y coordinates, built when it is first queried
+    private ExtremaIndex yIndex = null;
+    // null until the X coordinates are checked
+    private Boolean monotonic = null;
+
+    // start and end indices of the finite runs, computed with the extremes
+    private int[] runs = null;
+
+    // versions of the samples the cached data was computed from
+    private long xVersion = 0, yVersion = 0;
     // style
     private Paint color;
     private double width;
@@ -49,10 +79,63 @@ public class Line {
     private Marker.MarkerType marker;
     
     private Line lowerErrLine = null, upperErrLine = null;
+    // line of an error bound, whose X coordinates are the same as its line's
+    private Line parent = null;
     private Paint errAreaColor = null;
     private boolean showErrorLines = false;
     private boolean showErrorArea = false;
 
+    /**
+     * Normalized copy of a coordinate array, kept until the window or the 
+     * data points change.
+     */
+    private static class Normalized {
+	private double min = Double.NaN;
+	private double max = Double.NaN;
+	private double[] values = null;
+
+	/**
+	 * Query for the normalized values, computes them if the window changed.
+	 * @param src absolute values.
+	 * @param min absolute minimum value of the window.
+	 * @param max absolute maximum value of the window.
+	 * @param low lower limit of the normalized values.
+	 * @param high upper limit of the normalized values.
+	 * @return normalized values, shared between the calls.
+	 */
+	private double[] get(Samples src, double min, double max, double low, double high) {
+	    if (values != null && min == this.min && max == this.max)
+		return values;
+	    double span = max - min;
+	    double[] v = new double[src.size()];
+	    if (src instanceof LinearSamples) {
+		// evenly spaced values are normalized arithmetically
+		LinearSamples linear = (LinearSamples)src;
+		double start = (linear.getStart() - min) / span;
+		double step = linear.getStep() / span;
+		for (int i=0;i<v.length;i++)
+		    v[i] = Math.min(high, Math.max(low, start + i * step));
+	    } else {
+		for (int i=0;i<v.length;i++)
+		    v[i] = Math.min(high, Math.max(low, (src.get(i) - min) / span));
+	    }
+	    this.min = min;
+	    this.max = max;
+	    values = v;
+	    return v;
+	}
+
+	private void invalidate() {
+	    values = null;
+	}
+    }
+
+    // normalization caches
+    private Normalized normalXs = new Normalized();
+    private Normalized normalYs = new Normalized();
+    private Normalized lowerNormal = new Normalized();
+    private Normalized upperNormal = new Normalized();
+
     /**
      * Constructs a line data instance.
      * xs and ys must be same size arrays.
@@ -69,6 +152,27 @@ public class Line {
 		double width,
 		StrokeStyle style,
 		Marker.MarkerType marker) {
+	this(xs != null ? Samples.of(xs) : null,
+	     ys != null ? Samples.of(ys) : null,
+	     color, width, style, marker);
+    }
+
+    /**
+     * Constructs a line data instance from samples of any storage type.
+     * xs and ys must be same size sequences.
+     * @param xs X coordinates of the line's points.
+     * @param ys Y coordinates of the line's points.
+     * @param color color of the line as JavaFX Paint.
+     * @param width width of the line in  points.
+     * @param style style of the line.
+     * @param marker marker of the line's data points.
+     */
+    public Line(Samples xs,
+		Samples ys,
+		Paint color,
+		double width,
+		StrokeStyle style,
+		Marker.MarkerType marker) {
 	// data and boilerplate
 	this.xs = xs;
 	this.ys = ys;
@@ -76,26 +180,187 @@ public class Line {
 	this.width = width;
 	this.style = style;
 	this.marker = marker;
-	if (xs != null && ys != null) {
-	    minx = xs[0];
-	    maxx = xs[0];
-	    miny = ys[0];
-	    maxy = ys[0];
-
-	    // calculate the extremes
-	    if (xs.length == ys.length) {
-		for (int i=0;i<xs.length;i++) {
-		    if (xs[i] < minx)
-			minx = xs[i];
-		    if (xs[i] > maxx)
-			maxx = xs[i];
-		    if (ys[i] < miny)
-			miny = ys[i];
-		    if (ys[i] > maxy)
-			maxy = ys[i];
+    }
+
+    /**
+     * Calculates the extremes of the stored data points, if they are not 
+     * calculated yet. Non-finite points are ignored.
+     */
+    private void computeExtremes() {
+	checkVersion();
+	if (extremesValid || xs == null || ys == null || ys.size() == 0)
+	    return;
+	extremesValid = true;
+	if (xs instanceof LinearSamples && ys instanceof RingSamples) {
+	    // the ends of evenly spaced coordinates are the extremes, and the 
+	    // extremes of the images are maintained by the ring buffer
+	    minx = Math.min(xs.get(0), xs.get(xs.size() - 1));
+	    maxx = Math.max(xs.get(0), xs.get(xs.size() - 1));
+	    miny = ((RingSamples)ys).getMin();
+	    maxy = ((RingSamples)ys).getMax();
+	    if (Double.isNaN(miny)) {
+		miny = 0;
+		maxy = 0;
+	    }
+	    return;
+	}
+	if (parent != null && parent.xs == xs) {
+	    // the X extremes of an error bound are the ones of its line
+	    minx = parent.getMinx();
+	    maxx = parent.getMaxx();
+	    scanYs();
+	    return;
+	}
+	scan(true);
+    }
+
+    /**
+     * Computes the extremes of the finite Y coordinates, without reading the 
+     * X coordinates.
+     */
+    private void scanYs() {
+	double ly = Double.POSITIVE_INFINITY, hy = Double.NEGATIVE_INFINITY;
+	for (int i=0;i<ys.size();i++) {
+	    double y = ys.get(i);
+	    if (!Double.isFinite(y))
+		continue;
+	    if (y < ly)
+		ly = y;
+	    if (y > hy)
+		hy = y;
+	}
+	if (ly > hy) {
+	    // no finite points
+	    ly = hy = 0;
+	}
+	miny = ly;
+	maxy = hy;
+    }
+
+    /**
+     * Single pass over the data points, that records the finite runs, and 
+     * computes the extremes of the finite points.
+     * @param extremes true if the extremes are computed too.
+     */
+    private void scan(boolean extremes) {
+	int n = Math.min(xs.size(), ys.size());
+	double lx = Double.POSITIVE_INFINITY, hx = Double.NEGATIVE_INFINITY;
+	double ly = Double.POSITIVE_INFINITY, hy = Double.NEGATIVE_INFINITY;
+	int[] r = new int[2];
+	int count = 0;
+	int start = -1;
+	for (int i=0;i<=n;i++) {
+	    double x = i < n ? xs.get(i) : Double.NaN;
+	    double y = i < n ? ys.get(i) : Double.NaN;
+	    if (!Double.isFinite(x) || !Double.isFinite(y)) {
+		// a gap (or the end) closes the current run
+		if (start >= 0) {
+		    if (count == r.length)
+			r = Arrays.copyOf(r, 2 * r.length);
+		    r[count++] = start;
+		    r[count++] = i;
+		    start = -1;
 		}
+		continue;
 	    }
+	    if (start < 0)
+		start = i;
+	    if (x < lx)
+		lx = x;
+	    if (x > hx)
+		hx = x;
+	    if (y < ly)
+		ly = y;
+	    if (y > hy)
+		hy = y;
+	}
+	runs = Arrays.copyOf(r, count);
+	if (!extremes)
+	    return;
+	if (count == 0) {
+	    // no finite points
+	    lx = hx = ly = hy = 0;
 	}
+	minx = lx;
+	maxx = hx;
+	miny = ly;
+	maxy = hy;
+    }
+
+    /**
+     * Query for the finite runs of the data points. Points with a non-finite 
+     * (NaN or infinite) coordinate are gaps of the line, the runs are the 
+     * continuous parts between them.
+     * @return start index and index after the end of every run, in ascending order.
+     */
+    public int[] getRuns() {
+	return getRuns(0, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Query for the finite runs of a range of the data points, clipped to the
+     * range. If the runs of the whole line are known (they are recorded when 
+     * the extremes are computed), they are clipped, otherwise only the range
+     * is scanned, so a zoomed window does not read the whole line.
+     * @param from index of the first point of the range.
+     * @param to index after the last point of the range.
+     * @return start index and index after the end of every run in the range, in ascending order.
+     */
+    public int[] getRuns(int from, int to) {
+	checkVersion();
+	if (xs == null || ys == null)
+	    return new int[0];
+	int n = Math.min(xs.size(), ys.size());
+	from = Math.max(0, from);
+	to = Math.min(n, to);
+	if (runs == null && from == 0 && to == n) {
+	    // the runs of the whole line are kept for the next displays
+	    runs = scanRuns(0, n);
+	}
+	if (runs == null)
+	    return scanRuns(from, to);
+	int[] r = new int[runs.length];
+	int count = 0;
+	for (int i=0;i<runs.length;i+=2) {
+	    int start = Math.max(from, runs[i]);
+	    int end = Math.min(to, runs[i+1]);
+	    if (start < end) {
+		r[count++] = start;
+		r[count++] = end;
+	    }
+	}
+	return Arrays.copyOf(r, count);
+    }
+
+    /**
+     * Records the finite runs of a range of the data points, without 
+     * computing the extremes.
+     * @param from index of the first point of the range.
+     * @param to index after the last point of the range.
+     * @return start index and index after the end of every run in the range.
+     */
+    private int[] scanRuns(int from, int to) {
+	int[] r = new int[2];
+	int count = 0;
+	int start = -1;
+	for (int i=from;i<=to;i++) {
+	    boolean finite = i < to && Double.isFinite(xs.get(i))
+		&& Double.isFinite(ys.get(i));
+	    if (finite) {
+		if (start < 0)
+		    start = i;
+		continue;
+	    }
+	    // a gap (or the end) closes the current run
+	    if (start >= 0) {
+		if (count == r.length)
+		    r = Arrays.copyOf(r, 2 * r.length);
+		r[count++] = start;
+		r[count++] = i;
+		start = -1;
+	    }
+	}
+	return Arrays.copyOf(r, count);
     }
     
     // C style b'by
@@ -125,11 +390,47 @@ public class Line {
                          Paint areaColor) {
         showErrorLines = lines;
         showErrorArea = area;
-        lowerErrLine = new Line(this.xs,low,color,width,style,marker);
-        upperErrLine = new Line(this.ys,up,color,width,style,marker);
+        lowerErrLine = new Line(this.xs,low != null ? Samples.of(low) : null,
+                                color,width,style,marker);
+        upperErrLine = new Line(this.xs,up != null ? Samples.of(up) : null,
+                                color,width,style,marker);
+        // the bounds share the X coordinates, so they are not checked again
+        lowerErrLine.parent = this;
+        upperErrLine.parent = this;
         errAreaColor = areaColor;
+        invalidateNormals();
     }
     
+    /**
+     * Reduces the data points of the line with the Largest-Triangle-Three-Buckets
+     * algorithm, so the normalization and the display only handle the reduced 
+     * point set. The error lines keep the same points as the line. 
+     * The extremum points are not recalculated, so the axes stay the same.
+     * Lines with non-monotonic X coordinates are left intact.
+     * @param count number of data points to keep.
+     */
+    public void downsample(int count) {
+        if (xs == null || ys == null || !Decimator.isMonotonic(xs))
+            return;
+        int[] idx = Decimator.lttb(xs, ys, count);
+        if (idx == null)
+            return;
+        computeExtremes();
+        xs = xs.select(idx);
+        ys = ys.select(idx);
+        if (lowerErrLine != null && lowerErrLine.ys != null) {
+            lowerErrLine.xs = xs;
+            lowerErrLine.ys = lowerErrLine.ys.select(idx);
+        }
+        if (upperErrLine != null && upperErrLine.ys != null) {
+            upperErrLine.xs = xs;
+            upperErrLine.ys = upperErrLine.ys.select(idx);
+        }
+        invalidateNormals();
+        yIndex = null;
+        runs = null;
+    }
+
     /**
      * Query for the error line display.
      * @return if the error lines are given TRUE in the setError function.
@@ -185,11 +486,8 @@ public class Line {
      * @return array of screen-space normalized Y coordinates of the lower error line.
      */
     public double[] getLowerErrorNormal(double min, double max) {
-        double span = max - min;
-        return Arrays.stream(lowerErrLine.ys)
-            .map(x -> Math.max(0,(x - min) / span))
-            .toArray(); 
-        
+        checkVersion();
+        return lowerNormal.get(lowerErrLine.ys, min, max, 0, Double.POSITIVE_INFINITY);
     }
     
     /**
@@ -199,12 +497,9 @@ public class Line {
      * @return array of screen-space normalized Y coordinates of the upper error line.
      */
     public double[] getUpperErrorNormal(double min, double max) {
-        double span = max - min;
-        return Arrays.stream(upperErrLine.ys)
-            .map(x -> Math.min(1,(x - min) / span))
-            .toArray(); 
-        
-    } 
+        checkVersion();
+        return upperNormal.get(upperErrLine.ys, min, max, Double.NEGATIVE_INFINITY, 1);
+    }
 
     /**
      * Query for the normalized X coordinates of the contained line.
@@ -214,10 +509,8 @@ public class Line {
      * @return array of screen-space normalized X coordinates of the line.
      */
     public double[] getNormalXs(double min, double max) {
-	double span = max - min;
-	return Arrays.stream(xs)
-	    .map(x -> (x - min) / span)
-	    .toArray();
+	checkVersion();
+	return normalXs.get(xs, min, max, Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY);
     }
 
     /**
@@ -227,77 +520,271 @@ public class Line {
      * @return array of screen-space normalized Y coordinates of the line.
      */
     public double[] getNormalYs(double min, double max) {
+	checkVersion();
+	return normalYs.get(ys, min, max, Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY);
+    }
+
+    /**
+     * Query for the normalized X coordinates of the selected data points, 
+     * without normalizing the whole line.
+     * @param min absolute minimum value of the "display window".
+     * @param max absolute maximum value of the "display window".
+     * @param indices indices of the selected data points.
+     * @return array of screen-space normalized X coordinates of the selected points.
+     */
+    public double[] getNormalXs(double min, double max, int[] indices) {
+	return normalize(xs, indices, min, max, Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY);
+    }
+
+    /**
+     * Query for the normalized Y coordinates of the selected data points, 
+     * without normalizing the whole line.
+     * @param min absolute minimum value of the "display window".
+     * @param max absolute maximum value of the "display window".
+     * @param indices indices of the selected data points.
+     * @return array of screen-space normalized Y coordinates of the selected points.
+     */
+    public double[] getNormalYs(double min, double max, int[] indices) {
+	return normalize(ys, indices, min, max, Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY);
+    }
+
+    /**
+     * Query for the normalized Y coordinates of the selected points of the 
+     * lower error line.
+     * @param min absolute minimum value of the "display window".
+     * @param max absolute maximum value of the "display window".
+     * @param indices indices of the selected data points.
+     * @return array of screen-space normalized Y coordinates of the selected points.
+     */
+    public double[] getLowerErrorNormal(double min, double max, int[] indices) {
+	return normalize(lowerErrLine.ys, indices, min, max, 0, Double.POSITIVE_INFINITY);
+    }
+
+    /**
+     * Query for the normalized Y coordinates of the selected points of the 
+     * upper error line.
+     * @param min absolute minimum value of the "display window".
+     * @param max absolute maximum value of the "display window".
+     * @param indices indices of the selected data points.
+     * @return array of screen-space normalized Y coordinates of the selected points.
+     */
+    public double[] getUpperErrorNormal(double min, double max, int[] indices) {
+	return normalize(upperErrLine.ys, indices, min, max, Double.NEGATIVE_INFINITY, 1);
+    }
+
+    private static double[] normalize(Samples src, int[] indices, double min, double max,
+				      double low, double high) {
 	double span = max - min;
-	return Arrays.stream(ys)
-	    .map(y -> (y - min) / span)
-	    .toArray();
+	double[] v = new double[indices.length];
+	if (src instanceof LinearSamples) {
+	    LinearSamples linear = (LinearSamples)src;
+	    double start = (linear.getStart() - min) / span;
+	    double step = linear.getStep() / span;
+	    for (int i=0;i<indices.length;i++)
+		v[i] = Math.min(high, Math.max(low, start + indices[i] * step));
+	    return v;
+	}
+	for (int i=0;i<indices.length;i++)
+	    v[i] = Math.min(high, Math.max(low, (src.get(indices[i]) - min) / span));
+	return v;
+    }
+
+    /**
+     * Drops the cached data if the samples were modified since it was computed.
+     */
+    private void checkVersion() {
+	long x = xs != null ? xs.getVersion() : 0;
+	long y = ys != null ? ys.getVersion() : 0;
+	if (x == xVersion && y == yVersion)
+	    return;
+	xVersion = x;
+	yVersion = y;
+	invalidateNormals();
+	extremesValid = false;
+	yIndex = null;
+	monotonic = null;
+	runs = null;
+    }
+
+    /**
+     * Drops the cached normalized arrays, so they are computed again from 
+     * the current data points.
+     */
+    private void invalidateNormals() {
+	normalXs.invalidate();
+	normalYs.invalidate();
+	lowerNormal.invalidate();
+	upperNormal.invalidate();
     }
 
     /**
      * Query for the normalized X coordinates of the contained line that are 
      * already transformed into a logarithmic scale.
+     * Non-positive coordinates are masked as NaN, so they are gaps of the line.
      * @param min absolute minimum value of the "display window".
      * @param max absolute maximum value of the "display window".
-     * @param logBase the base of the logarithm used for the X axis.
+     * @param logBase the base of the logarithm used for the X axis, the normalized
+     *        coordinates do not depend on it.
      * @return array of screen-space normalized X coordinates of the line.
      */
     public double[] getLogNormalXs(double min, double max, int logBase) {
-	double logMin = logN(logBase,min);
-	double span = logN(logBase,max) - logMin;
-	return Arrays.stream(xs)
-	    .map(x -> logN(logBase,x))
-	    .map(x -> (x - logMin) / span)
-	    .toArray();
+	return LogProjection.project(xs, min, max);
     }
 
     /**
      * Query for the normalized Y coordinates of the contained line that are 
      * already transformed into a logarithmic scale.
+     * Non-positive coordinates are masked as NaN, so they are gaps of the line.
      * @param min absolute minimum value of the "display window".
      * @param max absolute maximum value of the "display window".
-     * @param logBase the base of the logarithm used for the Y axis.
+     * @param logBase the base of the logarithm used for the Y axis, the normalized
+     *        coordinates do not depend on it.
      * @return array of screen-space normalized Y coordinates of the line.
      */
     public double[] getLogNormalYs(double min, double max, int logBase) {
-	double logMin = logN(logBase,min);
-	double span = logN(logBase,max) - logMin;
-	return Arrays.stream(ys)
-	    .map(y -> logN(logBase,y))
-	    .map(y -> (y - logMin) / span)
-	    .toArray();
+	return LogProjection.project(ys, min, max);
     }
 
     /**
-     * Helper function, calculates N-base logarightm  of a given number.
-     * @param logBase base of the logarithm.
-     * @param x input of the logarithm.
-     * @return value of the N-base logarithm of the input.
+     * Query for the absolute X values. The array is the storage of double 
+     * samples, so it must not be modified.
+     * @return X coordinates of the stored data points.
      */
-    private double logN(int logBase, double x) {
-	return Math.log(x) / Math.log(logBase);
+    public double[] getXs() {
+	return xs.toArray();
     }
 
     /**
-     * Query for the absolute X values.
+     * Query for the absolute Y values. The array is the storage of double 
+     * samples, so it must not be modified.
+     * @return Y coordinates of the stored data points.
+     */
+    public double[] getYs() {
+	return ys.toArray();
+    }
+
+    /**
+     * Query for the X coordinates in their own storage type.
      * @return X coordinates of the stored data points.
      */
-    public double[] getXs() {
+    public Samples getXSamples() {
 	return xs;
     }
 
     /**
-     * Query for the absolute Y values.
+     * Query for the Y coordinates in their own storage type.
      * @return Y coordinates of the stored data points.
      */
-    public double[] getYs() {
+    public Samples getYSamples() {
 	return ys;
     }
 
+    /**
+     * Checks if the X coordinates are finite and non-decreasing. The check is
+     * done once, until the data points are changed.
+     * @return true if the X coordinates are finite and non-decreasing.
+     */
+    public boolean isMonotonic() {
+	checkVersion();
+	if (parent != null && parent.xs == xs)
+	    return parent.isMonotonic();
+	if (monotonic == null)
+	    monotonic = Decimator.isMonotonic(xs);
+	return monotonic;
+    }
+
+    /**
+     * Query for the min/max summary of the Y coordinates. The summary is built
+     * when it is first queried, and it is kept until the data points change.
+     * @return min/max summary of the Y coordinates.
+     */
+    public ExtremaIndex getYIndex() {
+	checkVersion();
+	if (yIndex == null)
+	    yIndex = new ExtremaIndex(ys);
+	return yIndex;
+    }
+
+    /**
+     * Query for whether the extremes of a range of the Y coordinates are worth
+     * answering with the min/max summary. Building the summary reads every 
+     * point of the line, so it is only used for a small range if it is 
+     * already built.
+     * @param from index of the first point of the range.
+     * @param to index after the last point of the range.
+     * @return true if the summary is built, or the range is a large part of the line.
+     */
+    public boolean prefersYIndex(int from, int to) {
+	checkVersion();
+	return yIndex != null || (long)(to - from) * ExtremaIndex.BLOCK >= ys.size();
+    }
+
+    /**
+     * Query for the extremes of the Y coordinates whose X coordinates are in
+     * the given window. Lines with non-decreasing X coordinates are answered 
+     * by the min/max summary without scanning the window, if the summary is
+     * built or the window is a large part of the line.
+     * @param min absolute minimum value of the X window.
+     * @param max absolute maximum value of the X window.
+     * @return minimum and maximum of the finite Y coordinates in the window, null if there are none.
+     */
+    public double[] getYRange(double min, double max) {
+	if (xs == null || ys == null)
+	    return null;
+	if (!isMonotonic()) {
+	    double[] range = null;
+	    for (int i=0;i<xs.size();i++) {
+		double x = xs.get(i);
+		// gaps of the domain are outside of every window
+		if (!(x >= min && x <= max))
+		    continue;
+		double y = ys.get(i);
+		if (!Double.isFinite(y))
+		    continue;
+		if (range == null)
+		    range = new double[] {y, y};
+		range[0] = Math.min(range[0], y);
+		range[1] = Math.max(range[1], y);
+	    }
+	    return range;
+	}
+	int[] range = Decimator.range(xs, min, max);
+	int from = range[0], to = range[1];
+	// the range keeps a point on both sides of the window
+	if (from < to && xs.get(from) < min)
+	    from++;
+	if (from < to && xs.get(to - 1) > max)
+	    to--;
+	if (from >= to)
+	    return null;
+	if (!prefersYIndex(from, to)) {
+	    // a small window is scanned, the summary would read the whole line
+	    double[] window = null;
+	    for (int i=from;i<to;i++) {
+		double y = ys.get(i);
+		if (!Double.isFinite(y))
+		    continue;
+		if (window == null)
+		    window = new double[] {y, y};
+		window[0] = Math.min(window[0], y);
+		window[1] = Math.max(window[1], y);
+	    }
+	    return window;
+	}
+	ExtremaIndex index = getYIndex();
+	double low = index.min(from, to);
+	// the summary only answers a non-finite value if the window is a gap
+	if (!Double.isFinite(low))
+	    return null;
+	return new double[] {low, index.max(from, to)};
+    }
+
     /**
      * Query for the lowest value in the X coordinates.
      * @return minimum of the stored X coordinates.
      */
     public double getMinx() {
+	computeExtremes();
 	return minx;
     }
 
@@ -306,6 +793,7 @@ public class Line {
      * @return maximum of the stored X coordinates.
      */
     public double getMaxx() {
+	computeExtremes();
 	return maxx;
     }
 
@@ -314,6 +802,7 @@ public class Line {
      * @return minimum of the stored Y coordinates.
      */
     public double getMiny() {
+	computeExtremes();
 	return miny;
     }
 
@@ -322,6 +811,7 @@ public class Line {
      * @return maximum of the stored Y coordinates.
      */
     public double getMaxy() {
+	computeExtremes();
 	return maxy;
     }
 
@@ -364,17 +854,22 @@ public class Line {
      * @param ys absolute values of the Y coordinates of the data points.
      */
     public void setPoints(double[] xs, double[] ys) {
+	setPoints(Samples.of(xs), Samples.of(ys));
+    }
+
+    /**
+     * Resets the data points and recalculates the min and max points.
+     * xs and ys must be same size sequences.
+     * @param xs absolute values of the X coordinates of the data points.
+     * @param ys absolute values of the Y coordinates of the data points.
+     */
+    public void setPoints(Samples xs, Samples ys) {
 	this.xs = xs;
 	this.ys = ys;
-	for (int i=0;i<xs.length;i++) {
-	    if (xs[i] < minx)
-		minx = xs[i];
-	    if (xs[i] > maxx)
-		maxx = xs[i];
-	    if (ys[i] < miny)
-		miny = ys[i];
-	    if (ys[i] > maxy)
-		maxy = ys[i];
-	}
+	invalidateNormals();
+	extremesValid = false;
+	yIndex = null;
+	monotonic = null;
+	runs = null;
     }
 }
@@ -0,0 +1,101 @@
+/*
+MIT License
+
+Copyright (c) 2023 Electrical Brain Imaging Lab
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+*/
+package hu.unipannon.virt.plot.data;
+
+/**
+ * Evenly spaced samples, computed from the first value and the step between 
+ * the samples instead of being stored. Used as the time axis of recordings 
+ * with a fixed sample rate.
+ * 
+ * @see Samples
+ * @author Tóth Bálint
+ */
+public class LinearSamples implements Samples {
+
+    private final double start;
+    private final double step;
+    private final int size;
+
+    /**
+     * Constructs evenly spaced samples.
+     * @param start value of the first sample.
+     * @param step difference between consecutive samples.
+     * @param size number of samples.
+     */
+    public LinearSamples(double start, double step, int size) {
+	this.start = start;
+	this.step = step;
+	this.size = size;
+    }
+
+    @Override
+    public int size() {
+	return size;
+    }
+
+    @Override
+    public double get(int index) {
+	return getStart() + index * step;
+    }
+
+    /**
+     * Query for the value of the first sample.
+     * @return first value.
+     */
+    public double getStart() {
+	return start;
+    }
+
+    /**
+     * Query for the difference between consecutive samples.
+     * @return step between the samples.
+     */
+    public double getStep() {
+	return step;
+    }
+
+    /**
+     * Evenly spaced samples with the same first value, step and size are 
+     * equal, so lines created with the same time base separately can be 
+     * recognized as sharing their X coordinates.
+     * @param o other object.
+     * @return true if o has the same values.
+     */
+    @Override
+    public boolean equals(Object o) {
+	if (this == o)
+	    return true;
+	if (!(o instanceof LinearSamples))
+	    return false;
+	LinearSamples other = (LinearSamples)o;
+	return Double.compare(getStart(), other.getStart()) == 0
+	    && Double.compare(getStep(), other.getStep()) == 0
+	    && size() == other.size();
+    }
+
+    @Override
+    public int hashCode() {
+	return (Double.hashCode(getStart()) * 31 + Double.hashCode(getStep())) * 31 + size();
+    }
+}
@@ -0,0 +1,57 @@
+/*
+MIT License
+
+Copyright (c) 2023 Electrical Brain Imaging Lab
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+*/
+package hu.unipannon.virt.plot.data;
+
+/**
+ * Samples that notify their listeners when they change, like a ring buffer 
+ * of a live acquisition. A plot observing the samples is only marked dirty by
+ * the listener, and the changes are drawn at most once per JavaFX pulse by 
+ * the figure of the plot, so a producer appending thousands of times a second
+ * costs at most one redraw per frame.<br>
+ * Displayed samples are read on the JavaFX thread (and by the workers it 
+ * waits for while it prepares the lines), so they must only be modified on 
+ * the JavaFX thread: a producer thread hands its chunks over with 
+ * <code>Platform.runLater()</code>. The listeners are called on the same 
+ * thread, after the change, so they must be short: they only mark the plot 
+ * dirty.
+ * 
+ * @see RingSamples
+ * @see Samples
+ * @author Tóth Bálint
+ */
+public interface ObservableSamples extends Samples {
+
+    /**
+     * Adds a listener that is called after every change of the samples.
+     * Adding the same listener again has no effect.
+     * @param listener action called after a change.
+     */
+    void addListener(Runnable listener);
+
+    /**
+     * Removes a listener of the samples.
+     * @param listener previously added listener.
+     */
+    void removeListener(Runnable listener);
+}
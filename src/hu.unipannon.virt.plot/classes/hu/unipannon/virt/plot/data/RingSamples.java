@@ -0,0 +1,228 @@
+/*
+MIT License
+
+Copyright (c) 2023 Electrical Brain Imaging Lab
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+*/
+package hu.unipannon.virt.plot.data;
+
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArraySet;
+
+/**
+ * Fixed-capacity ring buffer of samples for live acquisition. New samples are
+ * appended in chunks, and the buffer keeps the last <code>capacity</code> of 
+ * them, the oldest sample has the index 0. The window is read in place, it is
+ * never copied.<br>
+ * The minimum and maximum of the window are maintained incrementally with 
+ * monotonic queues, so they shrink when the extremes leave the window, and 
+ * they are queried in constant time. Every append increments the version of 
+ * the samples, so the cached data of a line can be dropped, and the total
+ * number of appended samples tells a reader which samples are new since it 
+ * last read the buffer.
+ * <br>
+ * The buffer is observable: a plot shown in a figure is drawn again after 
+ * the appends at most once per JavaFX pulse, without calling its update.
+ * <br>
+ * The buffer is not thread-safe. A displayed buffer is read on the JavaFX 
+ * thread, so it must only be appended on the JavaFX thread too, an 
+ * acquisition thread hands over its chunks instead of appending them.
+ * <br>
+ * Example:
+ * <pre>
+ * RingSamples ring = new RingSamples(10 * 2048);
+ * Figure.figure().plot(title("Cz"), Line.line(ring, 1.0 / 2048)).show();
+ * // on every new chunk of the acquisition thread
+ * Platform.runLater(() -&gt; ring.append(chunk));
+ * </pre>
+ * 
+ * @see ObservableSamples
+ * @see Samples
+ * @author Tóth Bálint
+ */
+public class RingSamples implements ObservableSamples {
+
+    private final double[] buffer;
+    private final int capacity;
+
+    // number of appended samples, the sequence number of the next sample
+    private long total = 0;
+    private long version = 0;
+
+    // sequence numbers of the candidate extremes, in the order of arrival
+    private final long[] minQueue;
+    private final long[] maxQueue;
+    private long minHead = 0, minTail = 0;
+    private long maxHead = 0, maxTail = 0;
+
+    // notified after every append, a listener can remove itself while it 
+    // is notified
+    private final Set<Runnable> listeners = new CopyOnWriteArraySet<>();
+
+    /**
+     * Creates an empty ring buffer.
+     * @param capacity maximal number of stored samples.
+     */
+    public RingSamples(int capacity) {
+	if (capacity < 1)
+	    throw new IllegalArgumentException("The capacity must be positive.");
+	this.capacity = capacity;
+	buffer = new double[capacity];
+	minQueue = new long[capacity];
+	maxQueue = new long[capacity];
+    }
+
+    /**
+     * Appends a chunk of samples, the oldest samples are dropped if the buffer
+     * is full.
+     * @param chunk new samples.
+     */
+    public void append(double[] chunk) {
+	append(chunk, 0, chunk.length);
+    }
+
+    /**
+     * Appends a part of a chunk of samples.
+     * @param chunk array containing the new samples.
+     * @param offset index of the first new sample in the array.
+     * @param length number of new samples.
+     */
+    public void append(double[] chunk, int offset, int length) {
+	for (int i=offset;i<offset+length;i++) {
+	    double v = chunk[i];
+	    // the sample leaving the window is dropped from the queues
+	    long oldest = total - capacity;
+	    if (minHead < minTail && minQueue[slot(minHead)] <= oldest)
+		minHead++;
+	    if (maxHead < maxTail && maxQueue[slot(maxHead)] <= oldest)
+		maxHead++;
+	    buffer[slot(total)] = v;
+	    if (Double.isFinite(v)) {
+		while (minHead < minTail && buffer[slot(minQueue[slot(minTail - 1)])] >= v)
+		    minTail--;
+		minQueue[slot(minTail++)] = total;
+		while (maxHead < maxTail && buffer[slot(maxQueue[slot(maxTail - 1)])] <= v)
+		    maxTail--;
+		maxQueue[slot(maxTail++)] = total;
+	    }
+	    total++;
+	}
+	version++;
+	for (var listener : listeners)
+	    listener.run();
+    }
+
+    @Override
+    public void addListener(Runnable listener) {
+	listeners.add(listener);
+    }
+
+    @Override
+    public void removeListener(Runnable listener) {
+	listeners.remove(listener);
+    }
+
+    private int slot(long sequence) {
+	return (int)(sequence % capacity);
+    }
+
+    @Override
+    public int size() {
+	return (int)Math.min(total, capacity);
+    }
+
+    @Override
+    public double get(int index) {
+	return buffer[slot(total - size() + index)];
+    }
+
+    /**
+     * Query for the version of the samples.
+     * @return number of appends since the creation of the buffer.
+     */
+    @Override
+    public long getVersion() {
+	return version;
+    }
+
+    /**
+     * Query for the number of samples appended since the creation of the 
+     * buffer. The samples appended since a previous query are the last 
+     * <code>getTotal() - previous</code> samples of the window (at most the 
+     * size of the window).
+     * @return total number of appended samples.
+     */
+    public long getTotal() {
+	return total;
+    }
+
+    /**
+     * Query for the maximal number of stored samples.
+     * @return capacity of the buffer.
+     */
+    public int getCapacity() {
+	return capacity;
+    }
+
+    /**
+     * Query for the minimal sample of the window, non-finite samples are 
+     * ignored.
+     * @return minimum of the finite stored samples, NaN if there is none.
+     */
+    public double getMin() {
+	return minHead < minTail ? buffer[slot(minQueue[slot(minHead)])] : Double.NaN;
+    }
+
+    /**
+     * Query for the maximal sample of the window, non-finite samples are 
+     * ignored.
+     * @return maximum of the finite stored samples, NaN if there is none.
+     */
+    public double getMax() {
+	return maxHead < maxTail ? buffer[slot(maxQueue[slot(maxHead)])] : Double.NaN;
+    }
+
+    /**
+     * Query for the time of the stored samples. The time of a sample is 
+     * computed from its sequence number, so the time axis moves together with 
+     * the window.
+     * @param x0 time of the first appended sample.
+     * @param dx time between the samples.
+     * @return time of the stored samples.
+     */
+    public Samples getTime(double x0, double dx) {
+	return new LinearSamples(x0, dx, 0) {
+	    @Override
+	    public int size() {
+		return RingSamples.this.size();
+	    }
+
+	    @Override
+	    public double getStart() {
+		return x0 + (total - RingSamples.this.size()) * dx;
+	    }
+
+	    @Override
+	    public long getVersion() {
+		return version;
+	    }
+	};
+    }
+}
@@ -0,0 +1,229 @@
+/*
+MIT License
+
+Copyright (c) 2023 Electrical Brain Imaging Lab
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+*/
+package hu.unipannon.virt.plot.data;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Raw sample file mapped into the memory, the source of recordings that do not
+ * fit into the heap. The file is not read when it is opened, the channels are 
+ * Samples that read their values from the mapped file on demand, so only the 
+ * pages of the displayed samples are loaded by the operating system.<br>
+ * The samples of the channels can be interleaved (ch0, ch1, ..., chN, ch0, ...)
+ * or stored after each other, one block per channel. The time axis is computed
+ * from the sample rate.
+ * <br>
+ * Example:
+ * <pre>
+ * SampleFile file = new SampleFile(Path.of("eeg.raw"), SampleFile.Type.INT16, 
+ *                                  64, 2048);
+ * Plot.plot(title("Cz"), Line.line(file, 12)).show();
+ * </pre>
+ * 
+ * @see Samples
+ * @author Tóth Bálint
+ */
+public class SampleFile {
+
+    /**
+     * Storage type of the samples.
+     */
+    public enum Type {
+	INT8(1), INT16(2), INT32(4), FLOAT32(4), FLOAT64(8);
+
+	private final int bytes;
+
+	private Type(int bytes) {
+	    this.bytes = bytes;
+	}
+
+	/**
+	 * Query for the size of a sample.
+	 * @return size of a sample in bytes.
+	 */
+	public int getBytes() {
+	    return bytes;
+	}
+    }
+
+    // the file is mapped in segments, a mapping cannot exceed 2 GB
+    private static final int SEGMENT_BITS = 30;
+    private static final long SEGMENT_MASK = (1L << SEGMENT_BITS) - 1;
+
+    private final ByteBuffer[] segments;
+    private final Type type;
+    private final int channels;
+    private final boolean interleaved;
+    private final double sampleRate;
+    private final int count;
+
+    /**
+     * Maps a little-endian file of interleaved samples.
+     * @param path path of the file.
+     * @param type storage type of the samples.
+     * @param channels number of channels.
+     * @param sampleRate sample rate of the recording in Hz.
+     * @throws IOException if the file cannot be mapped.
+     * @throws IllegalArgumentException if the number of channels is not positive, or the header is larger than the file.
+     */
+    public SampleFile(Path path, Type type, int channels, double sampleRate) throws IOException {
+	this(path, type, ByteOrder.LITTLE_ENDIAN, channels, true, 0, sampleRate);
+    }
+
+    /**
+     * Maps a sample file.
+     * @param path path of the file.
+     * @param type storage type of the samples.
+     * @param order byte order of the samples.
+     * @param channels number of channels.
+     * @param interleaved true if the samples of the channels are interleaved, false if they are stored in blocks.
+     * @param offset size of the file header in bytes, the samples start after it.
+     * @param sampleRate sample rate of the recording in Hz.
+     * @throws IOException if the file cannot be mapped.
+     * @throws IllegalArgumentException if the number of channels is not positive, or the header is larger than the file.
+     */
+    public SampleFile(Path path,
+		      Type type,
+		      ByteOrder order,
+		      int channels,
+		      boolean interleaved,
+		      long offset,
+		      double sampleRate) throws IOException {
+	if (channels < 1)
+	    throw new IllegalArgumentException("The number of channels must be positive.");
+	if (offset < 0)
+	    throw new IllegalArgumentException("The header offset must not be negative.");
+	this.type = type;
+	this.channels = channels;
+	this.interleaved = interleaved;
+	this.sampleRate = sampleRate;
+	try (FileChannel file = FileChannel.open(path, StandardOpenOption.READ)) {
+	    if (offset > file.size())
+		throw new IllegalArgumentException("The header offset exceeds the file.");
+	    long bytes = file.size() - offset;
+	    long samples = bytes / type.getBytes() / channels;
+	    if (samples > Integer.MAX_VALUE)
+		throw new IOException("Too many samples per channel: " + samples);
+	    count = (int)samples;
+
+	    // the mapping ends at the last complete sample
+	    bytes = samples * channels * type.getBytes();
+	    segments = new ByteBuffer[(int)((bytes + SEGMENT_MASK) >>> SEGMENT_BITS)];
+	    for (int i=0;i<segments.length;i++) {
+		long position = (long)i << SEGMENT_BITS;
+		long size = Math.min(SEGMENT_MASK + 1, bytes - position);
+		segments[i] = file.map(FileChannel.MapMode.READ_ONLY, offset + position, size)
+		    .order(order);
+	    }
+	}
+    }
+
+    /**
+     * Query for the samples of a channel. The samples are read from the file
+     * when they are accessed.
+     * @param channel index of the channel.
+     * @return samples of the channel.
+     * @throws IllegalArgumentException if there is no channel with the index.
+     */
+    public Samples getChannel(int channel) {
+	if (channel < 0 || channel >= channels)
+	    throw new IllegalArgumentException("No channel " + channel + " in a file of " + channels + " channels.");
+	return new Channel(channel);
+    }
+
+    /**
+     * Query for the time of the samples, computed from the sample rate.
+     * @return time of the samples in seconds.
+     */
+    public Samples getTime() {
+	return new LinearSamples(0, 1 / sampleRate, count);
+    }
+
+    /**
+     * Query for the number of samples in a channel.
+     * @return number of samples per channel.
+     */
+    public int getSampleCount() {
+	return count;
+    }
+
+    /**
+     * Query for the number of channels.
+     * @return number of channels.
+     */
+    public int getChannelCount() {
+	return channels;
+    }
+
+    /**
+     * Query for the sample rate.
+     * @return sample rate in Hz.
+     */
+    public double getSampleRate() {
+	return sampleRate;
+    }
+
+    /**
+     * Samples of a single channel, read from the mapped segments.
+     */
+    private class Channel implements Samples {
+	private final int channel;
+
+	private Channel(int channel) {
+	    this.channel = channel;
+	}
+
+	@Override
+	public int size() {
+	    return count;
+	}
+
+	@Override
+	public double get(int index) {
+	    long sample = interleaved
+		? (long)index * channels + channel
+		: (long)channel * count + index;
+	    long position = sample * type.getBytes();
+	    ByteBuffer segment = segments[(int)(position >>> SEGMENT_BITS)];
+	    int at = (int)(position & SEGMENT_MASK);
+	    switch (type) {
+	    case INT8:
+		return segment.get(at);
+	    case INT16:
+		return segment.getShort(at);
+	    case INT32:
+		return segment.getInt(at);
+	    case FLOAT32:
+		return segment.getFloat(at);
+	    default:
+		return segment.getDouble(at);
+	    }
+	}
+    }
+}
@@ -0,0 +1,128 @@
+/*
+MIT License
+
+Copyright (c) 2023 Electrical Brain Imaging Lab
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+*/
+package hu.unipannon.virt.plot.data;
+
+/**
+ * Read-only sequence of sample values, the storage of a data series.
+ * The data series only read their values through this interface, so the 
+ * samples can be stored in double or float arrays, or they can be computed or 
+ * read on demand, without copying them into a double array before plotting.
+ * 
+ * @see Line
+ * @see ScatterData
+ * @author Tóth Bálint
+ */
+public interface Samples {
+
+    /**
+     * Query for the number of samples.
+     * @return length of the sequence.
+     */
+    int size();
+
+    /**
+     * Query for a single sample.
+     * @param index index of the sample, in the [0;size) interval.
+     * @return value of the sample.
+     */
+    double get(int index);
+
+    /**
+     * Query for the version of the samples. The version changes when the 
+     * samples are modified, so the data computed from them can be dropped.
+     * @return version of the samples, 0 for samples that never change.
+     */
+    default long getVersion() {
+	return 0;
+    }
+
+    /**
+     * Query for the samples as a double array. The array can be the storage of
+     * the samples itself, so it must not be modified.
+     * @return values of the samples.
+     */
+    default double[] toArray() {
+	double[] values = new double[size()];
+	for (int i=0;i<values.length;i++)
+	    values[i] = get(i);
+	return values;
+    }
+
+    /**
+     * Selects the given samples into a new sequence with the same storage type.
+     * @param indices indices of the selected samples.
+     * @return new sequence of the selected values.
+     */
+    default Samples select(int[] indices) {
+	double[] selected = new double[indices.length];
+	for (int i=0;i<indices.length;i++)
+	    selected[i] = get(indices[i]);
+	return new DoubleSamples(selected);
+    }
+
+    /**
+     * Wraps a double array without copying it.
+     * @param values values of the samples.
+     * @return double backed samples.
+     */
+    static Samples of(double[] values) {
+	return new DoubleSamples(values);
+    }
+
+    /**
+     * Wraps a float array without copying it. Float samples take half the 
+     * memory of double samples, which is enough for most acquired signals.
+     * @param values values of the samples.
+     * @return float backed samples.
+     */
+    static Samples of(float[] values) {
+	return new FloatSamples(values);
+    }
+
+    /**
+     * Creates a strided view of a double buffer without copying it, like a 
+     * channel of interleaved multichannel frames.
+     * @param buffer array containing the samples.
+     * @param offset index of the first sample in the buffer.
+     * @param length number of samples in the view.
+     * @param stride distance of consecutive samples in the buffer.
+     * @return double backed samples.
+     */
+    static Samples of(double[] buffer, int offset, int length, int stride) {
+	return new DoubleSamples(buffer, offset, length, stride);
+    }
+
+    /**
+     * Creates a strided view of a float buffer without copying it, like a 
+     * channel of interleaved multichannel frames.
+     * @param buffer array containing the samples.
+     * @param offset index of the first sample in the buffer.
+     * @param length number of samples in the view.
+     * @param stride distance of consecutive samples in the buffer.
+     * @return float backed samples.
+     */
+    static Samples of(float[] buffer, int offset, int length, int stride) {
+	return new FloatSamples(buffer, offset, length, stride);
+    }
+}
@@ -23,29 +23,32 @@ SOFTWARE.
 */
 package hu.unipannon.virt.plot.data;
 
-import java.util.Arrays;
-
 import javafx.scene.paint.Paint;
+import hu.unipannon.virt.plot.frame.DensityMapping;
 import hu.unipannon.virt.plot.frame.Marker;
 
 /**
- * Data class to store a line as two arrays of double.
+ * Data class to store a line as two sequences of samples.
  * Works exactly like the Line class, with the exception of not containing the
  * graphical line's parameters.
  * 
  * @author Tóth Bálint
  */
 public class ScatterData {
-    private double[] xs;
-    private double[] ys;
+    private Samples xs;
+    private Samples ys;
     
-    // extremes
+    // extremes, computed when they are first queried
     private double minx, maxx, miny, maxy;
+    private boolean extremesValid = false;
     private Marker.MarkerType marker;
 
     private double[] size;
     private Paint[] color;
 
+    // null if the series is displayed with markers
+    private DensityMapping density = null;
+
     /**
      * Constructs a ScatterData instance.
      * xs and ys must be same size arrays.
@@ -60,29 +63,59 @@ public class ScatterData {
 		       Marker.MarkerType marker,
 		       double[] size,
 		       Paint[] color) {
+	this(Samples.of(xs), Samples.of(ys), marker, size, color);
+    }
+
+    /**
+     * Constructs a ScatterData instance from samples of any storage type.
+     * xs and ys must be same size sequences.
+     * @param xs X coordinates of the series' points.
+     * @param ys Y coordinates of the series' points.
+     * @param marker marker of the data points.
+     * @param size sizes of the different markers representing the data points. If contains 1 element, it will be used for all points.
+     * @param color colors of the markers representing the data points. If contains 1 item, it will be used for all points.
+     */
+    public ScatterData(Samples xs,
+		       Samples ys,
+		       Marker.MarkerType marker,
+		       double[] size,
+		       Paint[] color) {
 	this.size = size;
 	this.color = color;
 	this.marker = marker;
 	this.xs = xs;
 	this.ys = ys;
-	this.minx = xs[0];
-	this.maxx = xs[0];
-	this.miny = ys[0];
-	this.maxy = ys[0];
+    }
+
+    /**
+     * Calculates the extremes of the stored data points, if they are not 
+     * calculated yet. Series are added to a plot without scanning them, and 
+     * the plot computes the extremes of its series in parallel.
+     */
+    private synchronized void computeExtremes() {
+	if (extremesValid)
+	    return;
+	minx = xs.get(0);
+	maxx = minx;
+	miny = ys.get(0);
+	maxy = miny;
 
 	// calculate the extremes
-	if (xs.length == ys.length) {
-	    for (int i=0;i<xs.length;i++) {
-		if (xs[i] < minx)
-		    minx = xs[i];
-		if (xs[i] > maxx)
-		    maxx = xs[i];
-		if (ys[i] < miny)
-		    miny = ys[i];
-		if (ys[i] > maxy)
-		    maxy = ys[i];
+	if (xs.size() == ys.size()) {
+	    for (int i=0;i<xs.size();i++) {
+		double x = xs.get(i);
+		double y = ys.get(i);
+		if (x < minx)
+		    minx = x;
+		if (x > maxx)
+		    maxx = x;
+		if (y < miny)
+		    miny = y;
+		if (y > maxy)
+		    maxy = y;
 	    }
 	}
+	extremesValid = true;
     }
 
     /**
@@ -92,10 +125,7 @@ public class ScatterData {
      * @return array of screen-space normalized X coordinates of the data.
      */
     public double[] getNormalXs(double min, double max) {
-	double span = max - min;
-	return Arrays.stream(xs)
-	    .map(x -> (x - min) / span)
-	    .toArray();
+	return normalize(xs, min, max);
     }
 
     /**
@@ -105,26 +135,33 @@ public class ScatterData {
      * @return array of screen-space normalized Y coordinates of the data.
      */
     public double[] getNormalYs(double min, double max) {
+	return normalize(ys, min, max);
+    }
+
+    private static double[] normalize(Samples src, double min, double max) {
 	double span = max - min;
-	return Arrays.stream(ys)
-	    .map(y -> (y - min) / span)
-	    .toArray();
+	double[] v = new double[src.size()];
+	for (int i=0;i<v.length;i++)
+	    v[i] = (src.get(i) - min) / span;
+	return v;
     }
 
     /**
-     * Query for the absolute X values.
+     * Query for the absolute X values. The array is the storage of double 
+     * samples, so it must not be modified.
      * @return X coordinates of the stored data points.
      */
     public double[] getXs() {
-	return xs;
+	return xs.toArray();
     }
 
     /**
-     * Query for the absolute Y values.
+     * Query for the absolute Y values. The array is the storage of double 
+     * samples, so it must not be modified.
      * @return Y coordinates of the stored data points.
      */
     public double[] getYs() {
-	return ys;
+	return ys.toArray();
     }
 
     /**
@@ -132,6 +169,7 @@ public class ScatterData {
      * @return minimum of the stored X coordinates.
      */
     public double getMinx() {
+	computeExtremes();
 	return minx;
     }
 
@@ -140,6 +178,7 @@ public class ScatterData {
      * @return maximum of the stored X coordinates.
      */
     public double getMaxx() {
+	computeExtremes();
 	return maxx;
     }
 
@@ -148,6 +187,7 @@ public class ScatterData {
      * @return minimum of the stored Y coordinates.
      */
     public double getMiny() {
+	computeExtremes();
 	return miny;
     }
 
@@ -156,6 +196,7 @@ public class ScatterData {
      * @return maximum of the stored Y coordinates.
      */
     public double getMaxy() {
+	computeExtremes();
 	return maxy;
     }
 
@@ -178,4 +219,20 @@ public class ScatterData {
     public Paint[] getColor() {
 	return color;
     }
+
+    /**
+     * Sets the density raster display of the data series. 
+     * @param mapping intensity mapping of the raster, or null to display markers.
+     */
+    public void setDensity(DensityMapping mapping) {
+	this.density = mapping;
+    }
+
+    /**
+     * Query for the density raster display.
+     * @return intensity mapping of the raster, null if the series is displayed with markers.
+     */
+    public DensityMapping getDensity() {
+	return density;
+    }
 }
@@ -25,7 +25,8 @@ SOFTWARE.
 /**
  * The <code>data</code> package contains data structures related to plot types.
  * Classes in this package store data lines with arrays and theye're responsible
- * for the normalization of the data series.
+ * for the normalization of the data series. The data points are read through
+ * the Samples interface, so a series can be stored in double or float arrays.
  * @author Tóth Bálint
  */
 package hu.unipannon.virt.plot.data;
@@ -23,6 +23,8 @@ SOFTWARE.
 */
 package hu.unipannon.virt.plot.fluent;
 
+import java.awt.image.BufferedImage;
+
 import hu.unipannon.virt.plot.control.FrameController;
 import hu.unipannon.virt.plot.control.PlotSpaceController;
 import javafx.scene.layout.Pane;
@@ -130,4 +132,28 @@ public class Bar implements Displayable {
 	return frameController.display();
     }
 
+    /**
+     * Renders the bar plot's graphical items into an image with Java2D. No 
+     * JavaFX toolkit or window is needed, so it can be used in headless 
+     * environments too.
+     * @param width width of the image in pixels.
+     * @param height height of the image in pixels.
+     * @return <code>BufferedImage</code> with the plot's representation.
+     */
+    @Override
+    public BufferedImage render(int width, int height) {
+	frameController.addPlotSpaceController(plotController);
+	return frameController.render(width, height);
+    }
+
+    /**
+     * Draws the changes of the observed data of the plot, if they changed
+     * since the last call. Any number of changes between two calls is drawn
+     * once.
+     * @return true if there were pending changes.
+     */
+    @Override
+    public boolean applyChanges() {
+	return plotController.applyChanges();
+    }
 }
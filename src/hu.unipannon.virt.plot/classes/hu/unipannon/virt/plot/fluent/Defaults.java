@@ -26,7 +26,9 @@ package hu.unipannon.virt.plot.fluent;
 import javafx.scene.paint.Color;
 import javafx.scene.paint.Paint;
 import hu.unipannon.virt.plot.frame.BarStyle;
+import hu.unipannon.virt.plot.frame.DensityMapping;
 import hu.unipannon.virt.plot.frame.Marker;
+import hu.unipannon.virt.plot.frame.RenderMode;
 import hu.unipannon.virt.plot.frame.StrokeStyle;
 import hu.unipannon.virt.plot.frame.Marker.MarkerType;
 
@@ -203,4 +205,14 @@ public class Defaults {
      * Default width of error lines in points. Value: 0.5
      */
     public static double DEFAULT_ERROR_LINE_WIDTH = 0.5;
+
+    /**
+     * Default rendering backend of the plot spaces. Value: nodes.
+     */
+    public static RenderMode DEFAULT_RENDER_MODE = RenderMode.NODES;
+
+    /**
+     * Default intensity mapping of the scatter density raster. Value: log.
+     */
+    public static DensityMapping DEFAULT_DENSITY_MAPPING = DensityMapping.LOG;
 }
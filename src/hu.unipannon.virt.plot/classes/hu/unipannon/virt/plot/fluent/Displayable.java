@@ -23,6 +23,8 @@ SOFTWARE.
 */
 package hu.unipannon.virt.plot.fluent;
 
+import java.awt.image.BufferedImage;
+
 import javafx.scene.layout.Pane;
 
 /**
@@ -35,4 +37,21 @@ interface Displayable {
      * @return graphics in a Pane.
      */
     public Pane display();
+
+    /**
+     * Method that renders the stored graphics into an image, without using
+     * the JavaFX toolkit.
+     * @param width width of the image in pixels.
+     * @param height height of the image in pixels.
+     * @return graphics in an ARGB image.
+     */
+    public BufferedImage render(int width, int height);
+
+    /**
+     * Method that draws the pending changes of the observed data of the plot.
+     * A figure calls it once per JavaFX pulse, but a plot embedded into 
+     * another JavaFX container can call it from its own animation timer.
+     * @return true if there were pending changes.
+     */
+    public boolean applyChanges();
 }
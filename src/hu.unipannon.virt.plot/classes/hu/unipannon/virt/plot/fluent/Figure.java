@@ -27,9 +27,13 @@ package hu.unipannon.virt.plot.fluent;
 import java.awt.image.BufferedImage;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
 import java.io.File;
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
 
 import javax.imageio.ImageIO;
 import javax.swing.JFileChooser;
@@ -41,6 +45,7 @@ import javax.swing.JOptionPane;
 import javax.swing.SwingUtilities;
 import javax.swing.UIManager;
 
+import javafx.animation.AnimationTimer;
 import javafx.application.Platform;
 import javafx.embed.swing.JFXPanel;
 import javafx.scene.Scene;
@@ -50,6 +55,9 @@ import javafx.scene.layout.Pane;
 /**
  * Highest level of the fluent interface in standalone mode. The figure has 
  * functions to create and display plots in a window like MATLAB.
+ * While the window is shown, the changes of the observed data of the plots 
+ * (like appends to a ring buffer) are drawn by a single animation timer, at 
+ * most once per JavaFX pulse.
  * 
  * @see Plot
  * @see Bar
@@ -134,6 +142,10 @@ public class Figure {
     // subplot system ----------------------------------------------------------
     private int gridWidth, gridHeight;
 
+    // displayed plots, their changes are applied once per pulse
+    private List<Displayable> plots = new ArrayList<>();
+    private AnimationTimer pulse;
+
     // basics
     /**
      * Sets up Figure with factory defaults.
@@ -213,7 +225,7 @@ public class Figure {
      * @return itself.
      */
     public Figure subplot(Positions pos, Displayable plot) {
-	Pane p = plot.display();
+	Pane p = attach(plot);
 	p.setPrefSize(Integer.MAX_VALUE,Integer.MAX_VALUE); // I don't like this
 
 	// this is where the magic happens
@@ -268,6 +280,16 @@ public class Figure {
     
 
 
+    /**
+     * Displays a plot and registers it for the pulse updates.
+     * @param plot plot to be displayed.
+     * @return pane of the plot.
+     */
+    private Pane attach(Displayable plot) {
+	plots.add(plot);
+	return plot.display();
+    }
+
     // plotter functions -------------------------------------------------------
     
     /**
@@ -278,7 +300,7 @@ public class Figure {
      */
     public Figure plot(FrameStyle style, Line... lines) {
 	Plot plot = Plot.plot(style,lines);
-	Pane p = plot.display();
+	Pane p = attach(plot);
 	p.setPrefSize(Integer.MAX_VALUE,Integer.MAX_VALUE);
 	mainPane.add(p,0,0,1,1);
 	return this;
@@ -292,7 +314,7 @@ public class Figure {
      */
     public Figure plot(Line... lines) {
 	Plot plot = Plot.plot(lines);
-	Pane p = plot.display();
+	Pane p = attach(plot);
 	p.setPrefSize(Integer.MAX_VALUE,Integer.MAX_VALUE);
 	mainPane.add(p,0,0,1,1);
 	return this;
@@ -307,7 +329,7 @@ public class Figure {
      */
     public Figure loglog(FrameStyle style, Line... lines) {
 	Plot plot = Log.loglog(style,lines);
-	Pane p = plot.display();
+	Pane p = attach(plot);
 	p.setPrefSize(Integer.MAX_VALUE,Integer.MAX_VALUE);
 	mainPane.add(p,0,0,1,1);
 	return this;
@@ -322,7 +344,7 @@ public class Figure {
      */
     public Figure loglog(Line... lines) {
 	Plot plot = Log.loglog(lines);
-	Pane p = plot.display();
+	Pane p = attach(plot);
 	p.setPrefSize(Integer.MAX_VALUE,Integer.MAX_VALUE);
 	mainPane.add(p,0,0,1,1);
 	return this;
@@ -337,7 +359,7 @@ public class Figure {
      */
     public Figure semilogx(FrameStyle style, Line... lines) {
 	Plot plot = Log.semilogx(style,lines);
-	Pane p = plot.display();
+	Pane p = attach(plot);
 	p.setPrefSize(Integer.MAX_VALUE,Integer.MAX_VALUE);
 	mainPane.add(p,0,0,1,1);
 	return this;
@@ -352,7 +374,7 @@ public class Figure {
      */
     public Figure semilogx(Line... lines) {
 	Plot plot = Log.semilogx(lines);
-	Pane p = plot.display();
+	Pane p = attach(plot);
 	p.setPrefSize(Integer.MAX_VALUE,Integer.MAX_VALUE);
 	mainPane.add(p,0,0,1,1);
 	return this;
@@ -367,7 +389,7 @@ public class Figure {
      */
     public Figure semilogy(FrameStyle style, Line... lines) {
 	Plot plot = Log.semilogy(style,lines);
-	Pane p = plot.display();
+	Pane p = attach(plot);
 	p.setPrefSize(Integer.MAX_VALUE,Integer.MAX_VALUE);
 	mainPane.add(p,0,0,1,1);
 	return this;
@@ -382,7 +404,7 @@ public class Figure {
      */
     public Figure semilogy(Line... lines) {
 	Plot plot = Log.semilogy(lines);
-	Pane p = plot.display();
+	Pane p = attach(plot);
 	p.setPrefSize(Integer.MAX_VALUE,Integer.MAX_VALUE);
 	mainPane.add(p,0,0,1,1);
 	return this;
@@ -397,7 +419,7 @@ public class Figure {
      */
     public Figure scatter(Series... series) {
 	Scatter plot = Scatter.scatter(series);
-	Pane p = plot.display();
+	Pane p = attach(plot);
 	p.setPrefSize(Integer.MAX_VALUE,Integer.MAX_VALUE);
 	mainPane.add(p,0,0,1,1);
 	return this;
@@ -412,7 +434,7 @@ public class Figure {
      */
     public Figure scatter(FrameStyle style, Series... series) {
 	Scatter plot = Scatter.scatter(style,series);
-	Pane p = plot.display();
+	Pane p = attach(plot);
 	p.setPrefSize(Integer.MAX_VALUE,Integer.MAX_VALUE);
 	mainPane.add(p,0,0,1,1);
 	return this;
@@ -427,7 +449,7 @@ public class Figure {
      */
     public Figure bar(Category category) {
 	Bar plot = Bar.bar(category);
-	Pane p = plot.display();
+	Pane p = attach(plot);
 	p.setPrefSize(Integer.MAX_VALUE,Integer.MAX_VALUE);
 	mainPane.add(p,0,0,1,1);
 	return this;
@@ -442,7 +464,7 @@ public class Figure {
      */
     public Figure bar(FrameStyle style, Category category) {
 	Bar plot = Bar.bar(style,category);
-	Pane p = plot.display();
+	Pane p = attach(plot);
 	p.setPrefSize(Integer.MAX_VALUE,Integer.MAX_VALUE);
 	mainPane.add(p,0,0,1,1);
 	return this;
@@ -457,7 +479,7 @@ public class Figure {
      */
     public Figure hbar(Category category) {
 	Bar plot = Bar.hbar(category);
-	Pane p = plot.display();
+	Pane p = attach(plot);
 	p.setPrefSize(Integer.MAX_VALUE,Integer.MAX_VALUE);
 	mainPane.add(p,0,0,1,1);
 	return this;
@@ -472,7 +494,7 @@ public class Figure {
      */
     public Figure hbar(FrameStyle style, Category category) {
 	Bar plot = Bar.hbar(style,category);
-	Pane p = plot.display();
+	Pane p = attach(plot);
 	p.setPrefSize(Integer.MAX_VALUE,Integer.MAX_VALUE);
 	mainPane.add(p,0,0,1,1);
 	return this;
@@ -493,6 +515,15 @@ public class Figure {
         frame.setVisible(true);
         frame.setLocation(xpos, ypos);
         frame.setDefaultCloseOperation(JFrame.DISPOSE_ON_CLOSE);
+	frame.addWindowListener(new WindowAdapter() {
+		@Override
+		public void windowClosed(WindowEvent e) {
+		    Platform.runLater(() -> {
+			    if (pulse != null)
+				pulse.stop();
+			});
+		}
+	    });
         
         //!!!!!!!!!!!!!!!!!!!!!
         frame.setSize(560,420);
@@ -572,6 +603,15 @@ public class Figure {
     // returns a javafx scene with this figure
     private void createScene(JFXPanel panel) {
         panel.setScene(new Scene(mainPane));
+	// every plot applies its pending changes at most once per pulse
+	pulse = new AnimationTimer() {
+		@Override
+		public void handle(long now) {
+		    for (var plot : plots)
+			plot.applyChanges();
+		}
+	    };
+	pulse.start();
     }
 
 }
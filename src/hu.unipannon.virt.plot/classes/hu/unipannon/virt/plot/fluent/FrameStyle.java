@@ -30,7 +30,9 @@ import hu.unipannon.virt.plot.data.AxesSettings;
 import hu.unipannon.virt.plot.data.LegendSettings;
 import hu.unipannon.virt.plot.data.LegendSettings.LegendPosition;
 import hu.unipannon.virt.plot.data.LogSettings;
+import hu.unipannon.virt.plot.frame.RenderMode;
 import hu.unipannon.virt.plot.frame.StrokeStyle;
+import hu.unipannon.virt.plot.util.Parser;
 
 /**
  * Fluent interface responsible for setting attributes of the frame that are not
@@ -250,6 +252,29 @@ public class FrameStyle {
 	return this;
     }
 
+    /**
+     * Fluent interface method, sets the rendering backend of the data series.
+     * The canvas mode draws the series onto a single canvas, which is 
+     * recommended for lines with a large number of data points.
+     * @param mode render mode as enumerated value.
+     * @return itself.
+     */
+    public FrameStyle renderMode(RenderMode mode) {
+	controller.renderMode(mode);
+	return this;
+    }
+
+    /**
+     * Fluent interface method, sets the rendering backend of the data series 
+     * with its name.
+     * @param mode render mode as text (nodes, canvas).
+     * @return itself.
+     */
+    public FrameStyle renderMode(String mode) {
+	controller.renderMode(Parser.parseRenderMode(mode));
+	return this;
+    }
+
     /**
      * Fluent interface method, enables the default-generated legend.
      * @return itself.
@@ -438,6 +463,33 @@ public class FrameStyle {
 	return this;
     }
 
+    /**
+     * Fluent interface method, adds vertical event markers at the given X 
+     * coordinates, like the stimulus onsets of a recording. Only the markers 
+     * inside the X limits are drawn, all of them in a single shape.
+     * @param times X coordinates of the markers.
+     * @param labels texts of the markers in the order of the times, or none.
+     * @return itself.
+     */
+    public FrameStyle events(double[] times, String... labels) {
+	axisSettings.eventMarkers.add(new PlotSpaceController.EventMarkers(times,labels.length == 0 ? null : labels,Color.BLACK,0.5,StrokeStyle.NORMAL));
+	return this;
+    }
+
+    /**
+     * Fluent interface method, adds vertical event markers at the given X 
+     * coordinates, like the stimulus onsets of a recording. Only the markers 
+     * inside the X limits are drawn, all of them in a single shape.
+     * @param times X coordinates of the markers.
+     * @param style style of the markers configured with LineStyle's fluent interface.
+     * @param labels texts of the markers in the order of the times, or none.
+     * @return itself.
+     */
+    public FrameStyle events(double[] times, LineStyle style, String... labels) {
+	axisSettings.eventMarkers.add(new PlotSpaceController.EventMarkers(times,labels.length == 0 ? null : labels,style.getColor(),style.getWidth(),style.getStrokeStyle()));
+	return this;
+    }
+
     // kinda semi useless
     /**
      * Specific to the logarithmically scaled line plot, but can be called without
@@ -23,6 +23,11 @@ SOFTWARE.
 */
 package hu.unipannon.virt.plot.fluent;
 
+import hu.unipannon.virt.plot.data.LinearSamples;
+import hu.unipannon.virt.plot.data.RingSamples;
+import hu.unipannon.virt.plot.data.SampleFile;
+import hu.unipannon.virt.plot.data.Samples;
+
 /**
  * Fluent Interface wrapper around the data.Line.
  * 
@@ -32,7 +37,7 @@ public class Line {
 
     private hu.unipannon.virt.plot.data.Line lineData;
 
-    private Line(double[] xs, double[] ys, LineStyle style) {
+    private Line(Samples xs, Samples ys, LineStyle style) {
 	lineData = new hu.unipannon.virt.plot.data.Line(xs,
 				 ys,
 				 style.getColor(),
@@ -47,6 +52,8 @@ public class Line {
                     style.getErrorLineStyle().getStrokeStyle(), 
                     style.getErrorLineStyle().getMarker(),
                     style.getErrorAreaColor());
+            if (style.getDownsample() > 0)
+                lineData.downsample(style.getDownsample());
     }
 
     /**
@@ -56,7 +63,7 @@ public class Line {
      * @return a new instance of Line.
      */
     public static Line line(double[] xs, double[] ys) {
-	return new Line(xs,ys,new LineStyle());
+	return new Line(Samples.of(xs),Samples.of(ys),new LineStyle());
     }
 
     /**
@@ -68,7 +75,7 @@ public class Line {
      * @return a new instance of Line.
      */
     public static Line line(double[] xs, double[] ys, LineStyle style) {
-	return new Line(xs,ys,style);
+	return new Line(Samples.of(xs),Samples.of(ys),style);
     }
     
     /**
@@ -80,9 +87,237 @@ public class Line {
      * @return a new instance of Line.
      */
     public static Line line(double[] xs, double[] ys, String... style) {
-        return new Line(xs,ys,parseAttribs(style));
+        return new Line(Samples.of(xs),Samples.of(ys),parseAttribs(style));
+    }
+
+    /**
+     * Fluent interface starter method with single precision coordinates.
+     * The arrays are stored without copying, taking half the memory of 
+     * double arrays.
+     * @param xs array of x coordinates.
+     * @param ys array of y coordinates.
+     * @return a new instance of Line.
+     */
+    public static Line line(float[] xs, float[] ys) {
+	return new Line(Samples.of(xs),Samples.of(ys),new LineStyle());
+    }
+
+    /**
+     * Fluent interface starter method with single precision coordinates
+     * and the style.
+     * @param xs array of x coordinates.
+     * @param ys array of y coordinates.
+     * @param style stlye of the line with the LineStyle fluent interface.
+     * @return a new instance of Line.
+     */
+    public static Line line(float[] xs, float[] ys, LineStyle style) {
+	return new Line(Samples.of(xs),Samples.of(ys),style);
+    }
+
+    /**
+     * Fluent interface starter method with single precision coordinates
+     * and the style.
+     * @param xs array of x coordinates.
+     * @param ys array of y coordinates.
+     * @param style stlye formatting strings with the key-value pairs.
+     * @return a new instance of Line.
+     */
+    public static Line line(float[] xs, float[] ys, String... style) {
+        return new Line(Samples.of(xs),Samples.of(ys),parseAttribs(style));
+    }
+
+    /**
+     * Fluent interface starter method with a strided view of a buffer, like a 
+     * channel of interleaved multichannel frames (ch0, ch1, ..., chN, ch0, ...).
+     * The samples are read through the stride, without copying the channel.
+     * The x coordinates are the indices of the samples.
+     * @param buffer array containing the samples.
+     * @param offset index of the first sample in the buffer (the channel index for interleaved frames).
+     * @param length number of samples.
+     * @param stride distance of consecutive samples in the buffer (the number of channels for interleaved frames).
+     * @return a new instance of Line.
+     */
+    public static Line line(double[] buffer, int offset, int length, int stride) {
+	return line(buffer, offset, length, stride, new LineStyle());
+    }
+
+    /**
+     * Fluent interface starter method with a strided view of a buffer and 
+     * the style. The x coordinates are the indices of the samples.
+     * @param buffer array containing the samples.
+     * @param offset index of the first sample in the buffer.
+     * @param length number of samples.
+     * @param stride distance of consecutive samples in the buffer.
+     * @param style stlye of the line with the LineStyle fluent interface.
+     * @return a new instance of Line.
+     */
+    public static Line line(double[] buffer, int offset, int length, int stride, LineStyle style) {
+	return new Line(new LinearSamples(0, 1, length),
+			Samples.of(buffer, offset, length, stride),
+			style);
+    }
+
+    /**
+     * Fluent interface starter method with a strided view of a single 
+     * precision buffer. The x coordinates are the indices of the samples.
+     * @param buffer array containing the samples.
+     * @param offset index of the first sample in the buffer (the channel index for interleaved frames).
+     * @param length number of samples.
+     * @param stride distance of consecutive samples in the buffer (the number of channels for interleaved frames).
+     * @return a new instance of Line.
+     */
+    public static Line line(float[] buffer, int offset, int length, int stride) {
+	return line(buffer, offset, length, stride, new LineStyle());
+    }
+
+    /**
+     * Fluent interface starter method with a strided view of a single 
+     * precision buffer and the style. The x coordinates are the indices of the
+     * samples.
+     * @param buffer array containing the samples.
+     * @param offset index of the first sample in the buffer.
+     * @param length number of samples.
+     * @param stride distance of consecutive samples in the buffer.
+     * @param style stlye of the line with the LineStyle fluent interface.
+     * @return a new instance of Line.
+     */
+    public static Line line(float[] buffer, int offset, int length, int stride, LineStyle style) {
+	return new Line(new LinearSamples(0, 1, length),
+			Samples.of(buffer, offset, length, stride),
+			style);
+    }
+
+    /**
+     * Fluent interface starter method with samples of any storage type, like 
+     * strided views created with Samples.of.
+     * @param xs x coordinates.
+     * @param ys y coordinates.
+     * @return a new instance of Line.
+     */
+    public static Line line(Samples xs, Samples ys) {
+	return new Line(xs,ys,new LineStyle());
+    }
+
+    /**
+     * Fluent interface starter method with samples of any storage type.
+     * @param xs x coordinates.
+     * @param ys y coordinates.
+     * @param style stlye of the line with the LineStyle fluent interface.
+     * @return a new instance of Line.
+     */
+    public static Line line(Samples xs, Samples ys, LineStyle style) {
+	return new Line(xs,ys,style);
     }
     
+    /**
+     * Fluent interface starter method with uniformly sampled data points.
+     * The X coordinates are computed from the first coordinate and the 
+     * distance between the samples, so they are not stored in an array.
+     * @param x0 x coordinate of the first data point.
+     * @param dx distance between the x coordinates.
+     * @param ys array of y coordinates.
+     * @return a new instance of Line.
+     */
+    public static Line line(double x0, double dx, double[] ys) {
+	return new Line(new LinearSamples(x0,dx,ys.length),Samples.of(ys),new LineStyle());
+    }
+
+    /**
+     * Fluent interface starter method with uniformly sampled data points and
+     * the style.
+     * @param x0 x coordinate of the first data point.
+     * @param dx distance between the x coordinates.
+     * @param ys array of y coordinates.
+     * @param style stlye of the line with the LineStyle fluent interface.
+     * @return a new instance of Line.
+     */
+    public static Line line(double x0, double dx, double[] ys, LineStyle style) {
+	return new Line(new LinearSamples(x0,dx,ys.length),Samples.of(ys),style);
+    }
+
+    /**
+     * Fluent interface starter method with uniformly sampled single precision
+     * data points.
+     * @param x0 x coordinate of the first data point.
+     * @param dx distance between the x coordinates.
+     * @param ys array of y coordinates.
+     * @return a new instance of Line.
+     */
+    public static Line line(double x0, double dx, float[] ys) {
+	return new Line(new LinearSamples(x0,dx,ys.length),Samples.of(ys),new LineStyle());
+    }
+
+    /**
+     * Fluent interface starter method with uniformly sampled single precision
+     * data points and the style.
+     * @param x0 x coordinate of the first data point.
+     * @param dx distance between the x coordinates.
+     * @param ys array of y coordinates.
+     * @param style stlye of the line with the LineStyle fluent interface.
+     * @return a new instance of Line.
+     */
+    public static Line line(double x0, double dx, float[] ys, LineStyle style) {
+	return new Line(new LinearSamples(x0,dx,ys.length),Samples.of(ys),style);
+    }
+
+    /**
+     * Fluent interface starter method with a live ring buffer. The line 
+     * follows the appended samples when it is updated, the x coordinates are 
+     * the times of the samples, starting from 0.
+     * @param samples ring buffer of the samples.
+     * @param dx time between the samples.
+     * @return a new instance of Line.
+     */
+    public static Line line(RingSamples samples, double dx) {
+	return new Line(samples.getTime(0,dx),samples,new LineStyle());
+    }
+
+    /**
+     * Fluent interface starter method with a live ring buffer and the style.
+     * @param samples ring buffer of the samples.
+     * @param dx time between the samples.
+     * @param style stlye of the line with the LineStyle fluent interface.
+     * @return a new instance of Line.
+     */
+    public static Line line(RingSamples samples, double dx, LineStyle style) {
+	return new Line(samples.getTime(0,dx),samples,style);
+    }
+
+    /**
+     * Fluent interface starter method with a channel of a sample file. The 
+     * samples are read from the file only when they are displayed.
+     * @param file mapped sample file.
+     * @param channel index of the channel.
+     * @return a new instance of Line.
+     */
+    public static Line line(SampleFile file, int channel) {
+	return new Line(file.getTime(),file.getChannel(channel),new LineStyle());
+    }
+
+    /**
+     * Fluent interface starter method with a channel of a sample file and 
+     * the style.
+     * @param file mapped sample file.
+     * @param channel index of the channel.
+     * @param style stlye of the line with the LineStyle fluent interface.
+     * @return a new instance of Line.
+     */
+    public static Line line(SampleFile file, int channel, LineStyle style) {
+	return new Line(file.getTime(),file.getChannel(channel),style);
+    }
+
+    /**
+     * Fluent interface starter method with a channel of a sample file and 
+     * the style.
+     * @param file mapped sample file.
+     * @param channel index of the channel.
+     * @param style stlye formatting strings with the key-value pairs.
+     * @return a new instance of Line.
+     */
+    public static Line line(SampleFile file, int channel, String... style) {
+        return new Line(file.getTime(),file.getChannel(channel),parseAttribs(style));
+    }
+
     private static LineStyle parseAttribs(String[] args) {
         LineStyle toReturn = new LineStyle();
         for (String arg : args) {
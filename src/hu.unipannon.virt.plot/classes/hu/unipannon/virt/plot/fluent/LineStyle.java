@@ -32,7 +32,7 @@ import hu.unipannon.virt.plot.util.Parser;
 /**
  * Fluent interface responsible of storing styling elements to a Line object.
  * Provides functionallity to set the following properties in a single method chain:
- * Style, Color, Width, Marker, Line error.
+ * Style, Color, Width, Marker, Line error, Downsampling.
  * 
  * @author Tóth Bálint
  */
@@ -50,6 +50,8 @@ public class LineStyle {
     private LineStyle errorLineStyle;
     private Paint errorAreaColor;
 
+    private int downsample;
+
     /**
      * Default constructor.
      */
@@ -65,6 +67,7 @@ public class LineStyle {
         errorArea = false;
         errorLineStyle = null;
         errorAreaColor = color;
+        downsample = 0;
     }
 
     /**
@@ -222,6 +225,26 @@ public class LineStyle {
         return this;
     }
     
+    /**
+     * Fluent interface method, turns on the Largest-Triangle-Three-Buckets 
+     * downsampling of the line. The line keeps the given number of data points,
+     * which are selected to preserve its visual shape.
+     * @param count number of data points to keep. (0 turns the downsampling off.)
+     * @return itself.
+     */
+    public LineStyle downsample(int count) {
+        downsample = count;
+        return this;
+    }
+
+    /**
+     * Query for the downsampling point count.
+     * @return number of data points to keep, 0 if the downsampling is turned off.
+     */
+    public int getDownsample() {
+        return downsample;
+    }
+
     /**
      * Query for the error line showing mode.
      * @return true if the error lines are turned on.
@@ -346,6 +369,19 @@ public class LineStyle {
         } else if (key.equals("MARKER")) {
 	    // TODO marker
             this.marker = Marker.fromString(value);
+        } else if (key.equals("DOWNSAMPLE")) {
+            // format: method:count, only LTTB is supported
+            String[] method = value.split(":");
+            try {
+                if (method[0].equals("LTTB"))
+                    this.downsample = Integer.parseInt(method[1]);
+                else
+                    System.err.println("Unknown method for Downsample: " + method[0]);
+            } catch (Exception e) {
+                // missing or wrong point count, the line is not downsampled
+                System.err.println("Wrong parameter for Downsample: " + value);
+                this.downsample = 0;
+            }
         }
     }
     
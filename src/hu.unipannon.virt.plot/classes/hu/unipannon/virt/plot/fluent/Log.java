@@ -52,6 +52,41 @@ public class Log extends Plot {
 	plotController =  logController;
     }
 
+    /**
+     * Log plots are drawn as a whole, their lines are not addressable.
+     * @param index index of the line.
+     * @param line new line object.
+     * @return never returns.
+     * @throws UnsupportedOperationException always, create a new plot instead.
+     */
+    @Override
+    public Log setLine(int index, Line line) {
+	throw new UnsupportedOperationException("Lines of a log plot can not be replaced.");
+    }
+
+    /**
+     * Log plots are drawn as a whole, their lines are not addressable.
+     * @param index index of the line.
+     * @return never returns.
+     * @throws UnsupportedOperationException always, create a new plot instead.
+     */
+    @Override
+    public Log updateLine(int index) {
+	throw new UnsupportedOperationException("Lines of a log plot can not be updated.");
+    }
+
+    /**
+     * Log plots are drawn as a whole, their lines are not addressable.
+     * @param index index of the line.
+     * @param visible visibility of the line.
+     * @return never returns.
+     * @throws UnsupportedOperationException always, create a new plot instead.
+     */
+    @Override
+    public Log showLine(int index, boolean visible) {
+	throw new UnsupportedOperationException("Lines of a log plot can not be hidden.");
+    }
+
     // shadowing
     protected void setupFrameController(LogPlotController controller, FrameStyle style) {
 	super.setupFrameController(controller,style);
@@ -23,6 +23,8 @@ SOFTWARE.
 */
 package hu.unipannon.virt.plot.fluent;
 
+import java.awt.image.BufferedImage;
+
 import javafx.scene.layout.Pane;
 import hu.unipannon.virt.plot.control.FrameController;
 import hu.unipannon.virt.plot.control.PlotSpaceController;
@@ -104,6 +106,63 @@ public class Plot implements Displayable {
 	return new Plot(style, lines);
     }
 
+    /**
+     * Replaces a line of the plot. If the plot is already displayed, only the
+     * replaced line is drawn again, and the axes only change if the extents
+     * of the data change. Not supported by log plots.
+     * @param index index of the line, in the order the lines were given.
+     * @param line new line object.
+     * @return itself.
+     */
+    public Plot setLine(int index, Line line) {
+	if (plotController instanceof LinePlotController)
+	    ((LinePlotController)plotController).setLine(index, line.getLineData());
+	else
+	    System.err.println("Lines of this plot can not be replaced.");
+	return this;
+    }
+
+    /**
+     * Draws a line of the plot again after its samples were changed, like 
+     * after appending to a ring buffer. Only the line is drawn again, unless
+     * the extents of the data change. Not supported by log plots.
+     * @param index index of the line, in the order the lines were given.
+     * @return itself.
+     */
+    public Plot updateLine(int index) {
+	if (plotController instanceof LinePlotController)
+	    ((LinePlotController)plotController).updateLine(index);
+	else
+	    System.err.println("Lines of this plot can not be updated.");
+	return this;
+    }
+
+    /**
+     * Shows or hides a line of the plot, without changing the axes. Not 
+     * supported by log plots.
+     * @param index index of the line, in the order the lines were given.
+     * @param visible visibility of the line.
+     * @return itself.
+     */
+    public Plot showLine(int index, boolean visible) {
+	if (plotController instanceof LinePlotController)
+	    ((LinePlotController)plotController).setLineVisible(index, visible);
+	else
+	    System.err.println("Lines of this plot can not be hidden.");
+	return this;
+    }
+
+    /**
+     * Computes the coordinates of the lineplot's series in parallel, without 
+     * creating any graphical item. Can be called from a background thread 
+     * before display, so the JavaFX thread only attaches the coordinates.
+     * @return itself.
+     */
+    public Plot prepare() {
+	plotController.prepare();
+	return this;
+    }
+
     /**
      * Gives back a <code>JavaFX.Pane</code> object containing the lineplot's 
      * graphical items. This object than can be added into some JavaFX container.
@@ -114,4 +173,29 @@ public class Plot implements Displayable {
 	frameController.addPlotSpaceController(plotController);
 	return frameController.display();
     }
+
+    /**
+     * Renders the lineplot's graphical items into an image with Java2D. No 
+     * JavaFX toolkit or window is needed, so it can be used in headless 
+     * environments too.
+     * @param width width of the image in pixels.
+     * @param height height of the image in pixels.
+     * @return <code>BufferedImage</code> with the plot's representation.
+     */
+    @Override
+    public BufferedImage render(int width, int height) {
+	frameController.addPlotSpaceController(plotController);
+	return frameController.render(width, height);
+    }
+
+    /**
+     * Draws the changes of the observed data of the plot, if they changed
+     * since the last call. Any number of changes between two calls is drawn
+     * once.
+     * @return true if there were pending changes.
+     */
+    @Override
+    public boolean applyChanges() {
+	return plotController.applyChanges();
+    }
 }
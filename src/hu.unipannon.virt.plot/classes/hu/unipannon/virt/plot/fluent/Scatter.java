@@ -23,6 +23,10 @@ SOFTWARE.
 */
 package hu.unipannon.virt.plot.fluent;
 
+import java.awt.image.BufferedImage;
+import java.util.Arrays;
+import java.util.stream.Collectors;
+
 import javafx.scene.layout.Pane;
 import hu.unipannon.virt.plot.control.FrameController;
 import hu.unipannon.virt.plot.control.PlotSpaceController;
@@ -50,9 +54,9 @@ public class Scatter implements Displayable {
 	frameController = style.getController();
 	ScatterPlotController scatterController =
 	    new ScatterPlotController();
-	for (var s : series) {
-	    scatterController.addData(s.getScatterData());
-	}
+	scatterController.addData(Arrays.stream(series)
+				  .map(Series::getScatterData)
+				  .collect(Collectors.toList()));
 	Defaults.resetPalette();
 	scatterController.resetDataLineNumbers();
 	style.getAxisSettings().applyTo(scatterController);
@@ -80,6 +84,17 @@ public class Scatter implements Displayable {
 	return new Scatter(style,series);
     }
 
+    /**
+     * Computes the coordinates of the scatter plot's series in parallel, without 
+     * creating any graphical item. Can be called from a background thread 
+     * before display, so the JavaFX thread only attaches the coordinates.
+     * @return itself.
+     */
+    public Scatter prepare() {
+	plotController.prepare();
+	return this;
+    }
+
     /**
      * Gives back a <code>JavaFX.Pane</code> object containing the scatter plot's 
      * graphical items. This object than can be added into some JavaFX container.
@@ -89,4 +104,29 @@ public class Scatter implements Displayable {
 	frameController.addPlotSpaceController(plotController);
 	return frameController.display();
     }
+
+    /**
+     * Renders the scatter plot's graphical items into an image with Java2D. No 
+     * JavaFX toolkit or window is needed, so it can be used in headless 
+     * environments too.
+     * @param width width of the image in pixels.
+     * @param height height of the image in pixels.
+     * @return <code>BufferedImage</code> with the plot's representation.
+     */
+    @Override
+    public BufferedImage render(int width, int height) {
+	frameController.addPlotSpaceController(plotController);
+	return frameController.render(width, height);
+    }
+
+    /**
+     * Draws the changes of the observed data of the plot, if they changed
+     * since the last call. Any number of changes between two calls is drawn
+     * once.
+     * @return true if there were pending changes.
+     */
+    @Override
+    public boolean applyChanges() {
+	return plotController.applyChanges();
+    }
 }
@@ -26,13 +26,14 @@ package hu.unipannon.virt.plot.fluent;
 import java.util.Arrays;
 
 import javafx.scene.paint.Paint;
+import hu.unipannon.virt.plot.frame.DensityMapping;
 import hu.unipannon.virt.plot.frame.Marker;
 import hu.unipannon.virt.plot.util.Parser;
 
 /**
  * Fluent interface responsible of storing styling elements to a Series object.
  * Provides functionallity to set the following properties in a single method chain:
- * Color, Width, Marker.
+ * Color, Width, Marker, Density.
  * @author Tóth Bálint
  */
 public class ScatterStyle {
@@ -40,6 +41,7 @@ public class ScatterStyle {
     private Paint[] color;
     private double[] size;
     private Marker.MarkerType marker;
+    private DensityMapping density;
 
     /**
      * Default constructs a ScatterStyle object.
@@ -50,6 +52,7 @@ public class ScatterStyle {
 	size = new double[1];
 	size[0] = Defaults.DEFAULT_MARKER_SIZE;
 	marker = Marker.MarkerType.CIRCLE;
+	density = null;
     }
 
     private ScatterStyle(Marker.MarkerType marker) {
@@ -120,6 +123,48 @@ public class ScatterStyle {
 	return this;
     }
 
+    /**
+     * Fluent interface method. Displays the series as a density raster with
+     * the default intensity mapping, instead of drawing a marker for every data
+     * point. Recommended for series with a very large number of points.
+     * Only the first color is used.
+     * @return itself.
+     */
+    public ScatterStyle density() {
+	this.density = Defaults.DEFAULT_DENSITY_MAPPING;
+	return this;
+    }
+
+    /**
+     * Fluent interface method. Displays the series as a density raster with
+     * the given intensity mapping.
+     * @param mapping intensity mapping as enumerated value (LINEAR, LOG).
+     * @return itself.
+     */
+    public ScatterStyle density(DensityMapping mapping) {
+	this.density = mapping;
+	return this;
+    }
+
+    /**
+     * Fluent interface method. Displays the series as a density raster with
+     * the given intensity mapping.
+     * @param mapping intensity mapping as string ("linear", "log").
+     * @return itself.
+     */
+    public ScatterStyle density(String mapping) {
+	this.density = Parser.parseDensityMapping(mapping);
+	return this;
+    }
+
+    /**
+     * Query for the density raster mode.
+     * @return intensity mapping of the raster, null if markers are displayed.
+     */
+    public DensityMapping getDensity() {
+	return density;
+    }
+
     /**
      * Query for marker color array.
      * @return colors.
@@ -170,6 +215,8 @@ public class ScatterStyle {
 	    this.color[0] = Parser.parseColor(value);
         } else if (key.equals("MARKER")) {
 	    this.marker = Marker.fromString(value);
+	} else if (key.equals("DENSITY")) {
+	    this.density = Parser.parseDensityMapping(value);
 	}
     }
 }
@@ -23,6 +23,7 @@ SOFTWARE.
 */
 package hu.unipannon.virt.plot.fluent;
 
+import hu.unipannon.virt.plot.data.Samples;
 import hu.unipannon.virt.plot.data.ScatterData;
 
 /**
@@ -34,11 +35,12 @@ public class Series {
 
     private ScatterData scatterData;
 
-    private Series(double[] xs, double[] ys, ScatterStyle style) {
+    private Series(Samples xs, Samples ys, ScatterStyle style) {
 	scatterData = new ScatterData(xs,ys,
 				      style.getMarker(),
 				      style.getSize(),
 				      style.getColor());
+	scatterData.setDensity(style.getDensity());
     }
 
     /**
@@ -48,7 +50,7 @@ public class Series {
      * @return new instance of Series.
      */
     public static Series series(double[] xs, double[] ys) {
-	return new Series(xs,ys,new ScatterStyle());
+	return new Series(Samples.of(xs),Samples.of(ys),new ScatterStyle());
     }
 
     /**
@@ -62,7 +64,7 @@ public class Series {
     public static Series series(double[] xs,
 				double[] ys,
 				ScatterStyle style) {
-	return new Series(xs,ys,style);
+	return new Series(Samples.of(xs),Samples.of(ys),style);
     }
 
     /**
@@ -76,7 +78,60 @@ public class Series {
     public static Series series(double[] xs,
 				double[] ys,
 				String... style) {
-	return new Series(xs,ys,parseAttribs(style));
+	return new Series(Samples.of(xs),Samples.of(ys),parseAttribs(style));
+    }
+
+    /**
+     * Fluent interface starter method, creates a data series with single 
+     * precision points. The arrays are stored without copying.
+     * @param xs array of x coordinates of the data points.
+     * @param ys array of y coordinates of the data points.
+     * @return new instance of Series.
+     */
+    public static Series series(float[] xs, float[] ys) {
+	return new Series(Samples.of(xs),Samples.of(ys),new ScatterStyle());
+    }
+
+    /**
+     * Fluent interface starter method, creates a data series with single 
+     * precision points and style.
+     * @param xs array of x coordinates of the data points.
+     * @param ys array of y coordinates of the data points.
+     * @param style style of the plot.
+     * @return new instance of Series.
+     */
+    public static Series series(float[] xs,
+				float[] ys,
+				ScatterStyle style) {
+	return new Series(Samples.of(xs),Samples.of(ys),style);
+    }
+
+    /**
+     * Fluent interface starter method, creates a data series with single 
+     * precision points and style as string "key;value" attribute pairs.
+     * @param xs array of x coordinates of the data points.
+     * @param ys array of y coordinates of the data points.
+     * @param style style of the plot.
+     * @return new instance of Series.
+     */
+    public static Series series(float[] xs,
+				float[] ys,
+				String... style) {
+	return new Series(Samples.of(xs),Samples.of(ys),parseAttribs(style));
+    }
+
+    /**
+     * Fluent interface starter method, creates a data series with samples of 
+     * any storage type.
+     * @param xs x coordinates of the data points.
+     * @param ys y coordinates of the data points.
+     * @param style style of the plot.
+     * @return new instance of Series.
+     */
+    public static Series series(Samples xs,
+				Samples ys,
+				ScatterStyle style) {
+	return new Series(xs,ys,style);
     }
 
     private static ScatterStyle parseAttribs(String[] args) {
@@ -0,0 +1,193 @@
+/*
+MIT License
+
+Copyright (c) 2023 Electrical Brain Imaging Lab
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+*/
+package hu.unipannon.virt.plot.frame;
+
+/**
+ * Normalized geometry of the bars of a Bar plot.
+ * The rectangles are computed once, in the [0;1] coordinate system of the Plot 
+ * Space with the origin at the top left corner, so they only have to be scaled
+ * by the size of the Plot Space on a resize. Bars are stored in the same order
+ * as the image matrix: the bars of the i-th item in the data groups are 
+ * continous, and they share the i-th color.
+ * 
+ * @see BarLayer
+ * @see PlotSurface
+ * @author Tóth Bálint
+ */
+public final class BarGeometry {
+
+    final int groupSize;
+    final int groupCount;
+    final double[] x, y, w, h;
+
+    private BarGeometry(int groupSize, int groupCount) {
+        this.groupSize = groupSize;
+        this.groupCount = groupCount;
+        int n = groupSize * groupCount;
+        x = new double[n];
+        y = new double[n];
+        w = new double[n];
+        h = new double[n];
+    }
+
+    /**
+     * Computes the bars in grouped configuration, the items of a data group 
+     * are placed side-by-side.
+     * @param dom normalized X coordinates of the data points (or groups).
+     * @param im normalized matrix of Y coordinates of the data points.
+     * @param baselineOffset offset value from the bottom line of the plot space.
+     * @param width [0;1] normalised width of a bar or group.
+     * @param horizontal boolean if the bar stlye is horizontal.
+     * @return geometry of the bars.
+     */
+    public static BarGeometry grouped(double[] dom, double[] im, double baselineOffset, double width, boolean horizontal) {
+        int groupSize = im.length / dom.length;
+        int groupCount = dom.length;
+        BarGeometry bars = new BarGeometry(groupSize, groupCount);
+
+        // total width for a single group
+        double availableWidth = groupCount > 1 ? dom[1] - dom[0] : 0.75;
+        // for group size of one it's 0, calculated to every side of every group
+        double groupPadding = groupSize == 1 ? 0 : 0.01;
+        double barWidth = (availableWidth - 2 * groupPadding) / (double)groupSize;
+        double thickness = width * barWidth;
+
+        for (int group=0;group<groupCount;group++) {
+            for (int i=0;i<groupSize;i++) {
+                int index = (i * groupCount) + group; // index it like a 2D array
+                double value = im[index];
+                double shift = (barWidth / 2) * (2*i + 1 - groupSize);
+                if (horizontal) {
+                    bars.x[index] = baselineOffset + Math.min(value, 0);
+                    bars.w[index] = Math.abs(value);
+                    bars.y[index] = 1 - dom[group] - thickness / 2 + shift;
+                    bars.h[index] = thickness;
+                } else {
+                    bars.x[index] = dom[group] - thickness / 2 + shift;
+                    bars.w[index] = thickness;
+                    bars.y[index] = 1 - baselineOffset - Math.max(value, 0);
+                    bars.h[index] = Math.abs(value);
+                }
+            }
+        }
+        return bars;
+    }
+
+    /**
+     * Computes the bars in stacked configuration, the items of a data group 
+     * are placed on top of each other. Negative values are stacked downwards.
+     * @param dom normalized X coordinates of the data points (or groups).
+     * @param im normalized matrix of Y coordinates of the data points.
+     * @param baselineOffset offset value from the bottom line of the plot space.
+     * @param width [0;1] normalised width of a bar or group.
+     * @param horizontal boolean if the bar stlye is horizontal.
+     * @return geometry of the bars.
+     */
+    public static BarGeometry stacked(double[] dom, double[] im, double baselineOffset, double width, boolean horizontal) {
+        int groupSize = im.length / dom.length;
+        int groupCount = dom.length;
+        BarGeometry bars = new BarGeometry(groupSize, groupCount);
+
+        double availableWidth = groupCount > 1 ? dom[1] - dom[0] : 0.75;
+        double thickness = width * availableWidth;
+
+        for (int group=0;group<groupCount;group++) {
+            double top = 0;
+            double bot = 0;
+            for (int i=0;i<groupSize;i++) {
+                int index = (i * groupCount) + group;
+                double value = im[index];
+                // start of the bar along the value axis, measured from the baseline
+                double start;
+                if (value < 0) {
+                    start = value - bot;
+                    bot -= value;
+                } else {
+                    start = top;
+                    top += value;
+                }
+                if (horizontal) {
+                    bars.x[index] = baselineOffset + start;
+                    bars.w[index] = Math.abs(value);
+                    bars.y[index] = 1 - dom[group] - thickness / 2;
+                    bars.h[index] = thickness;
+                } else {
+                    bars.x[index] = dom[group] - thickness / 2;
+                    bars.w[index] = thickness;
+                    bars.y[index] = 1 - baselineOffset - start - Math.abs(value);
+                    bars.h[index] = Math.abs(value);
+                }
+            }
+        }
+        return bars;
+    }
+
+    /**
+     * Query for the number of items in a data group.
+     * @return number of bar colors.
+     */
+    public int getGroupSize() {
+        return groupSize;
+    }
+
+    /**
+     * Query for the number of data groups.
+     * @return number of bars with the same color.
+     */
+    public int getGroupCount() {
+        return groupCount;
+    }
+
+    /**
+     * Query for the left sides of the bars.
+     * @return normalized X coordinates of the bars' top left corner.
+     */
+    public double[] getX() {
+        return x;
+    }
+
+    /**
+     * Query for the top sides of the bars.
+     * @return normalized Y coordinates of the bars' top left corner, measured from the top.
+     */
+    public double[] getY() {
+        return y;
+    }
+
+    /**
+     * Query for the widths of the bars.
+     * @return normalized widths.
+     */
+    public double[] getWidth() {
+        return w;
+    }
+
+    /**
+     * Query for the heights of the bars.
+     * @return normalized heights.
+     */
+    public double[] getHeight() {
+        return h;
+    }
+}
@@ -0,0 +1,97 @@
+/*
+MIT License
+
+Copyright (c) 2023 Electrical Brain Imaging Lab
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+*/
+package hu.unipannon.virt.plot.frame;
+
+import javafx.css.Size;
+import javafx.css.SizeUnits;
+import javafx.scene.Group;
+import javafx.scene.Node;
+import javafx.scene.paint.Color;
+import javafx.scene.paint.Paint;
+import javafx.scene.shape.SVGPath;
+
+/**
+ * Batched representation of the bars of a Bar plot.
+ * Instead of a Rectangle with bound properties for every bar, the bars sharing
+ * the same color are outlined in a single path shape. The geometry is computed
+ * once in normalized coordinates, and it is only scaled when the size of the 
+ * Plot Space changes.
+ * 
+ * @see BarGeometry
+ * @see PlotSpace
+ * @author Tóth Bálint
+ */
+public class BarLayer extends Group implements PlotLayer {
+
+    private BarGeometry bars;
+
+    /**
+     * Creates a bar layer with one path per color.
+     * @param bars normalized geometry of the bars.
+     * @param color array of colors, used to separate items in a data group.
+     */
+    BarLayer(BarGeometry bars, Paint[] color) {
+        this.bars = bars;
+        for (int i=0;i<bars.groupSize;i++) {
+            SVGPath path = new SVGPath();
+            path.setStroke(Color.BLACK);
+            path.setStrokeWidth(new Size(1, SizeUnits.PT).pixels());
+            path.setFill(color[i]);
+            getChildren().add(path);
+        }
+    }
+
+    /**
+     * PlotLayer interface implementation, outlines the bars for the given 
+     * Plot Space size.
+     * @param w width of the Plot Space in pixels.
+     * @param h height of the Plot Space in pixels.
+     */
+    @Override
+    public void layout(double w, double h) {
+        for (int i=0;i<bars.groupSize;i++) {
+            StringBuilder outline = new StringBuilder();
+            int end = (i + 1) * bars.groupCount;
+            for (int index=i*bars.groupCount;index<end;index++) {
+                double bw = w * bars.w[index];
+                double bh = h * bars.h[index];
+                PathData.point(outline.append('M'), w * bars.x[index], h * bars.y[index]);
+                PathData.coordinate(outline.append('h'), bw);
+                PathData.coordinate(outline.append('v'), bh);
+                PathData.coordinate(outline.append('h'), -bw);
+                outline.append('Z');
+            }
+            ((SVGPath)getChildren().get(i)).setContent(outline.toString());
+        }
+    }
+
+    /**
+     * PlotLayer interface implementation.
+     * @return the layer itself.
+     */
+    @Override
+    public Node getNode() {
+        return this;
+    }
+}
@@ -0,0 +1,102 @@
+/*
+MIT License
+
+Copyright (c) 2023 Electrical Brain Imaging Lab
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+*/
+package hu.unipannon.virt.plot.frame;
+
+import javafx.scene.Node;
+import javafx.scene.image.ImageView;
+import javafx.scene.image.PixelFormat;
+import javafx.scene.image.WritableImage;
+import javafx.scene.paint.Color;
+import javafx.scene.paint.Paint;
+
+/**
+ * Density raster representation of a scatter data series.
+ * Instead of drawing a marker for every data point, the points are counted in 
+ * a pixel-sized accumulation buffer, and every pixel gets the color of the 
+ * series with an opacity computed from its point count. The buffer is rebinned
+ * in parallel from the stored normalized coordinates when the size of the Plot
+ * Space changes, so the raster is always pixel exact.
+ * 
+ * @see DensityRaster
+ * @see DensityMapping
+ * @see PlotSpace
+ * @author Tóth Bálint
+ */
+public class DensityLayer extends ImageView implements PlotLayer {
+
+    private double[] dom, im;
+    private Color color;
+    private DensityMapping mapping;
+
+    private WritableImage image;
+
+    /**
+     * Creates a density layer of a data series. The arrays are not copied.
+     * @param dom normalized X coordinates of the data points.
+     * @param im normalized Y coordinates of the data points.
+     * @param color color of the series. Only the RGB components of a Color are used, other paints are displayed black.
+     * @param mapping intensity mapping of the point counts.
+     */
+    public DensityLayer(double[] dom, double[] im, Paint color, DensityMapping mapping) {
+        this.dom = dom;
+        this.im = im;
+        this.color = color instanceof Color ? (Color)color : Color.BLACK;
+        this.mapping = mapping;
+        this.image = null;
+        setMouseTransparent(true);
+    }
+
+    /**
+     * PlotLayer interface implementation, bins the data points into the pixels
+     * of the given Plot Space size and writes the raster into the image.
+     * @param w width of the Plot Space in pixels.
+     * @param h height of the Plot Space in pixels.
+     */
+    @Override
+    public void layout(double w, double h) {
+        int cols = (int)Math.ceil(w);
+        int rows = (int)Math.ceil(h);
+        if (cols < 1 || rows < 1)
+            return;
+
+        int[] counts = DensityRaster.raster(dom, im, cols, rows, color, mapping);
+
+        if (image == null || (int)image.getWidth() != cols || (int)image.getHeight() != rows) {
+            image = new WritableImage(cols, rows);
+            setImage(image);
+        }
+        image.getPixelWriter().setPixels(0, 0, cols, rows, 
+                                         PixelFormat.getIntArgbInstance(), 
+                                         counts, 0, cols);
+    }
+
+    /**
+     * PlotLayer interface implementation.
+     * @return the layer itself.
+     */
+    @Override
+    public Node getNode() {
+        return this;
+    }
+}
@@ -0,0 +1,120 @@
+/*
+MIT License
+
+Copyright (c) 2023 Electrical Brain Imaging Lab
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+*/
+package hu.unipannon.virt.plot.frame;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+import javafx.scene.paint.Color;
+
+/**
+ * Density raster of a scatter data series, without any Scene Graph object.
+ * The data points are counted in a pixel-sized accumulation buffer, and every 
+ * pixel gets the color of the series with an opacity computed from its point 
+ * count. Used by the density layer of the Plot Space, and by any surface that
+ * draws the raster into an ARGB image, like the headless renderer, which must
+ * not start the JavaFX toolkit.
+ * 
+ * @see DensityLayer
+ * @see DensityMapping
+ * @author Tóth Bálint
+ */
+public final class DensityRaster {
+
+    // minimal number of points binned by one worker
+    private static final int MIN_CHUNK = 1 << 16;
+
+    private DensityRaster() {}
+
+    /**
+     * Computes the density raster of a data series.
+     * @param dom normalized X coordinates of the data points.
+     * @param im normalized Y coordinates of the data points.
+     * @param cols number of pixel columns.
+     * @param rows number of pixel rows.
+     * @param color color of the series.
+     * @param mapping intensity mapping of the point counts.
+     * @return row continous, non-premultiplied ARGB pixels, starting from the top left corner.
+     */
+    public static int[] raster(double[] dom, double[] im, int cols, int rows, Color color, DensityMapping mapping) {
+        int[] counts = bin(dom, im, cols, rows);
+        int max = 0;
+        for (int c : counts)
+            if (c > max)
+                max = c;
+
+        // the counts are turned into ARGB pixels in place
+        int rgb = ((int)Math.round(color.getRed() * 255) << 16)
+            | ((int)Math.round(color.getGreen() * 255) << 8)
+            | (int)Math.round(color.getBlue() * 255);
+        double opacity = color.getOpacity() * 255;
+        double norm = mapping == DensityMapping.LOG ? 1.d / Math.log1p(max) : 1.d / max;
+        for (int i=0;i<counts.length;i++) {
+            int c = counts[i];
+            if (c == 0)
+                continue;
+            double level = mapping == DensityMapping.LOG ? Math.log1p(c) * norm : c * norm;
+            counts[i] = ((int)Math.round(level * opacity) << 24) | rgb;
+        }
+        return counts;
+    }
+
+    /**
+     * Counts the data points in every pixel. The points are split into chunks
+     * that are binned in parallel into their own buffers, then summed.
+     * @param dom normalized X coordinates of the data points.
+     * @param im normalized Y coordinates of the data points.
+     * @param cols number of pixel columns.
+     * @param rows number of pixel rows.
+     * @return row continous point counts of the pixels.
+     */
+    private static int[] bin(double[] dom, double[] im, int cols, int rows) {
+        // one buffer per worker, small series are binned on a single thread
+        int chunks = Math.max(1, Math.min(ForkJoinPool.getCommonPoolParallelism(), 
+                                          dom.length / MIN_CHUNK));
+        int chunkSize = (dom.length + chunks - 1) / chunks;
+        return IntStream.range(0, chunks).parallel()
+            .mapToObj(chunk -> {
+                    int[] counts = new int[cols * rows];
+                    int end = Math.min(dom.length, (chunk + 1) * chunkSize);
+                    for (int i=chunk*chunkSize;i<end;i++) {
+                        double x = dom[i];
+                        double y = im[i];
+                        // points outside the plot space are not displayed
+                        if (!(x >= 0 && x <= 1 && y >= 0 && y <= 1))
+                            continue;
+                        int col = Math.min((int)(x * cols), cols - 1);
+                        int row = Math.min((int)((1 - y) * rows), rows - 1);
+                        counts[row * cols + col]++;
+                    }
+                    return counts;
+                })
+            .reduce((a, b) -> {
+                    for (int i=0;i<a.length;i++)
+                        a[i] += b[i];
+                    return a;
+                })
+            .get();
+    }
+}
@@ -0,0 +1,124 @@
+/*
+MIT License
+
+Copyright (c) 2023 Electrical Brain Imaging Lab
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+*/
+package hu.unipannon.virt.plot.frame;
+
+import hu.unipannon.virt.plot.fluent.Defaults;
+import javafx.css.Size;
+import javafx.css.SizeUnits;
+import javafx.scene.Group;
+import javafx.scene.Node;
+import javafx.scene.paint.Paint;
+import javafx.scene.shape.SVGPath;
+import javafx.scene.text.Font;
+import javafx.scene.text.Text;
+
+/**
+ * Batched representation of vertical event markers, like the stimulus onsets
+ * or the artifacts annotated on a recording. Every marker spans the whole 
+ * height of the Plot Space, and all of them are outlined in a single path 
+ * shape, which is rebuilt from the stored normalized X coordinates when the 
+ * size of the Plot Space changes. Only the labels of the markers are separate
+ * Scene Graph objects.
+ * 
+ * @see PlotSpace
+ * @author Tóth Bálint
+ */
+public class EventMarkerLayer extends Group implements PlotLayer {
+
+    private double[] dom;
+    private SVGPath path;
+    private Text[] texts;
+
+    /**
+     * Creates an event marker layer. The array is not copied.
+     * @param dom normalized X coordinates of the markers.
+     * @param labels texts of the markers, or null. 
+     * @param color color of the markers.
+     * @param width width of the markers in points.
+     * @param style style of the markers.
+     */
+    public EventMarkerLayer(double[] dom, String[] labels, Paint color, double width, StrokeStyle style) {
+        this.dom = dom;
+        path = new SVGPath();
+        path.setStroke(color);
+        path.setFill(null);
+        path.setStrokeWidth(new Size(width, SizeUnits.PT).pixels());
+        for (double dash : style.getDashArray())
+            path.getStrokeDashArray().add(dash);
+        getChildren().add(path);
+
+        texts = new Text[labels == null ? 0 : dom.length];
+        for (int i=0;i<texts.length;i++) {
+            if (labels[i] == null)
+                continue;
+            texts[i] = new Text(labels[i]);
+            texts[i].setFont(Font.font(Defaults.DEFAULT_FONT, 10));
+            texts[i].setFill(color);
+            getChildren().add(texts[i]);
+        }
+        setMouseTransparent(true);
+    }
+
+    /**
+     * PlotLayer interface implementation, outlines the markers for the given 
+     * Plot Space size and moves the labels next to their tops. Labels that 
+     * would overlap the previous label are hidden.
+     * @param w width of the Plot Space in pixels.
+     * @param h height of the Plot Space in pixels.
+     */
+    @Override
+    public void layout(double w, double h) {
+        StringBuilder outline = new StringBuilder(dom.length * 24);
+        double labelEnd = Double.NEGATIVE_INFINITY;
+        for (int i=0;i<dom.length;i++) {
+            if (!Double.isFinite(dom[i])) {
+                if (i < texts.length && texts[i] != null)
+                    texts[i].setVisible(false);
+                continue;
+            }
+            double x = w * dom[i];
+            PathData.point(outline.append('M'), x, 0);
+            PathData.coordinate(outline.append('V'), h);
+            if (i < texts.length && texts[i] != null) {
+                boolean fits = x + 2 >= labelEnd;
+                texts[i].setVisible(fits);
+                if (fits) {
+                    texts[i].setX(x + 2);
+                    texts[i].setY(10);
+                    labelEnd = x + 4 + texts[i].getLayoutBounds().getWidth();
+                }
+            }
+        }
+        path.setContent(outline.toString());
+    }
+
+    /**
+     * PlotLayer interface implementation.
+     * @return the layer itself.
+     */
+    @Override
+    public Node getNode() {
+        return this;
+    }
+}
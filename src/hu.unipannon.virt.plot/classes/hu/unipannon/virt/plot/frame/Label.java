@@ -119,6 +119,9 @@ public class Label implements Component {
      * @param text text to be displayed.
      */
     public void setText(String text) {
+        // pooled labels are often set to the same text again
+        if (text != null && text.equals(t.getText()))
+            return;
         t.setText(text);
         refresh();
     }
@@ -23,6 +23,9 @@ SOFTWARE.
 */
 package hu.unipannon.virt.plot.frame;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import hu.unipannon.virt.plot.fluent.Defaults;
 import javafx.beans.binding.DoubleBinding;
 import javafx.beans.property.DoubleProperty;
@@ -49,20 +52,106 @@ import javafx.scene.text.TextAlignment;
  * Legends can be displayed inside the Plot space.
  * Each legend entry contains a String description and a graphical item.
  * The graphical item can be a line (with marker), a marker and a filled rectangle
- * based on the item it represents
+ * based on the item it represents. <br>
+ * The entries are stored, and the Scene Graph nodes are only created when the 
+ * legend is first positioned, so the legend can be drawn by other surfaces as well.
  * 
  * @see Component
  * @author Tóth Bálint
  */
 public class Legend implements Component {
+
+    /**
+     * Types of the graphical items representing a legend entry.
+     */
+    public static enum EntryType {
+        LINE,
+        MARKER,
+        BAR,
+    }
+
+    /**
+     * A single legend entry with its description and the properties of the
+     * graphical item representing it.
+     */
+    public static class Entry {
+        private EntryType type;
+        private Paint color;
+        private StrokeStyle style;
+        private double width;
+        private Marker.MarkerType markerType;
+        private String description;
+
+        private Entry(EntryType type, Paint color, StrokeStyle style, double width, Marker.MarkerType markerType, String description) {
+            this.type = type;
+            this.color = color;
+            this.style = style;
+            this.width = width;
+            this.markerType = markerType;
+            this.description = description;
+        }
+
+        /**
+         * Query for the type of the graphical item.
+         * @return type of the entry.
+         */
+        public EntryType getType() {
+            return type;
+        }
+
+        /**
+         * Query for the color of the graphical item.
+         * @return color of the entry.
+         */
+        public Paint getColor() {
+            return color;
+        }
+
+        /**
+         * Query for the stroke style, only used by line entries.
+         * @return stroke style of the line.
+         */
+        public StrokeStyle getStyle() {
+            return style;
+        }
+
+        /**
+         * Query for the line width in points, only used by line entries.
+         * @return width of the line.
+         */
+        public double getWidth() {
+            return width;
+        }
+
+        /**
+         * Query for the marker, used by line and marker entries.
+         * @return marker type of the entry.
+         */
+        public Marker.MarkerType getMarker() {
+            return markerType;
+        }
+
+        /**
+         * Query for the label next to the graphical item.
+         * @return description of the entry.
+         */
+        public String getDescription() {
+            return description;
+        }
+    }
     
     private final boolean DEBUG_BORDER = false;
     
     // layout variables
     private DoubleProperty hOffsetProperty;
     private DoubleProperty vOffsetProperty;
+
+    // entries
+    private List<Entry> entries;
+    private String title;
+    private boolean outlined;
    
-    // container variables
+    // container variables, created on demand
     private BorderPane node;
     private GridPane inner;
     int activeRow = 0;
@@ -73,13 +162,30 @@ public class Legend implements Component {
     public Legend() {
         hOffsetProperty = new SimpleDoubleProperty();
         vOffsetProperty = new SimpleDoubleProperty();
-        
+
+        entries = new ArrayList<>();
+        title = null;
+        outlined = false;
+        node = null;
+    }
+
+    /**
+     * Creates the Scene Graph nodes of the legend from the stored entries.
+     * @return container of the legend.
+     */
+    private BorderPane build() {
+        if (node != null)
+            return node;
+
         node = new BorderPane();
         inner = new GridPane();
         node.setCenter(inner);
         if (DEBUG_BORDER) {
             node.setStyle("-fx-border-color: red;-fx-background-color: white;");
             inner.setStyle("-fx-border-color: blue;");
+        } else if (outlined) {
+            node.setStyle("-fx-border-color: black;-fx-background-color: white;");
+            node.applyCss();
         } else {
             node.setStyle("-fx-background-color: white;");
             node.applyCss();
@@ -89,6 +195,12 @@ public class Legend implements Component {
         inner.setHgap(3);
         inner.setVgap(5);
         node.toFront();
+
+        if (title != null)
+            makeTitle();
+        for (var entry : entries)
+            makeEntry(entry);
+        return node;
     }
 
     /**
@@ -97,12 +209,42 @@ public class Legend implements Component {
      * @param title title as String.
      */
     public void setTitle(String title) {
+        this.title = title;
+        if (node != null)
+            makeTitle();
+    }
+
+    private void makeTitle() {
         Text t = new Text(title);
         t.setFont(Font.font("Arial",FontWeight.BOLD,14));
         t.setTextAlignment(TextAlignment.CENTER);
         BorderPane.setAlignment(t, Pos.CENTER);
         node.setTop(t);
     }
+
+    /**
+     * Query for the title of the legend.
+     * @return title of the legend, or null if it has no title.
+     */
+    public String getTitle() {
+        return title;
+    }
+
+    /**
+     * Query for the stored entries, in the order they appear from top to bottom.
+     * @return legend entries.
+     */
+    public List<Entry> getEntries() {
+        return entries;
+    }
+
+    /**
+     * Query for the border of the legend.
+     * @return true if the legend has a black border.
+     */
+    public boolean isOutlined() {
+        return outlined;
+    }
     
     /**
      * Adds a line item to the legend.
@@ -113,38 +255,7 @@ public class Legend implements Component {
      * @param description the label that appears nex to the line.
      */
     public void addLine(Paint color, StrokeStyle style, double width, Marker.MarkerType markerType, String description) {
-        Line l = new Line();
-        l.setStroke(color);
-        l.setStrokeWidth(width);
-        switch (style) {
-            case NORMAL:
-                break;
-            case DASH:
-                l.getStrokeDashArray().addAll(8d,11d);
-                break;
-            case DOT:
-                l.getStrokeDashArray().addAll(2d);
-                break;
-            case DASH_DOT:
-                l.getStrokeDashArray().addAll(10d,5d,3d,5d);
-                break;
-            default:
-                break;
-        }
-        
-        Marker m = new Marker().setAttribs(Defaults.DEFAULT_MARKER_SIZE, width, color);
-        Pane p = new Pane();
-        p.setPrefWidth(40);
-        l.startXProperty().set(0);
-        l.endXProperty().bind(p.widthProperty());
-        l.startYProperty().bind(p.heightProperty().divide(2));
-        l.endYProperty().bind(p.heightProperty().divide(2));
-        Group g = m.draw(markerType);
-        g.translateXProperty().bind(p.widthProperty().divide(2).subtract(m.getSize()/2));
-        g.translateYProperty().bind(p.heightProperty().divide(2).subtract(m.getSize()/2));
-        p.getChildren().addAll(l,g);
-        inner.addRow(activeRow++,p,new Text(description));
-        
+        addEntry(new Entry(EntryType.LINE, color, style, width, markerType, description));
     }
     
     /**
@@ -154,13 +265,7 @@ public class Legend implements Component {
      * @param description the label that appears nex to the marker.
      */
     public void addMarker(Paint color, Marker.MarkerType markerType, String description) {
-        Marker m = new Marker().setAttribs(Defaults.DEFAULT_MARKER_SIZE, 1, color);
-        Group g = m.draw(markerType);
-        Pane p = new Pane();
-        g.translateXProperty().bind(p.widthProperty().divide(2).subtract(m.getSize()/2));
-        g.translateYProperty().bind(p.heightProperty().divide(2).subtract(m.getSize()/2));
-        p.getChildren().add(g);
-        inner.addRow(activeRow++,p,new Text(description));
+        addEntry(new Entry(EntryType.MARKER, color, StrokeStyle.NORMAL, 1, markerType, description));
     }
     
     /**
@@ -169,20 +274,70 @@ public class Legend implements Component {
      * @param description the label that appears nex to the rectangle.
      */
     public void addBar(Paint color, String description) {
-        Rectangle rect = new Rectangle();
-        rect.widthProperty().set(40);
-        rect.heightProperty().set(15);
-        rect.setFill(color);
-        rect.setStroke(Color.BLACK);
-        inner.addRow(activeRow++,rect,new Text(description));
+        addEntry(new Entry(EntryType.BAR, color, StrokeStyle.NORMAL, 1, Marker.MarkerType.NONE, description));
+    }
+
+    private void addEntry(Entry entry) {
+        entries.add(entry);
+        if (node != null)
+            makeEntry(entry);
+    }
+
+    /**
+     * Creates the graphical item and the label of an entry in the next row.
+     * @param entry legend entry.
+     */
+    private void makeEntry(Entry entry) {
+        switch (entry.type) {
+            case LINE: {
+                Line l = new Line();
+                l.setStroke(entry.color);
+                l.setStrokeWidth(entry.width);
+                for (double dash : entry.style.getDashArray())
+                    l.getStrokeDashArray().add(dash);
+
+                Marker m = new Marker().setAttribs(Defaults.DEFAULT_MARKER_SIZE, entry.width, entry.color);
+                Pane p = new Pane();
+                p.setPrefWidth(40);
+                l.startXProperty().set(0);
+                l.endXProperty().bind(p.widthProperty());
+                l.startYProperty().bind(p.heightProperty().divide(2));
+                l.endYProperty().bind(p.heightProperty().divide(2));
+                Group g = m.draw(entry.markerType);
+                g.translateXProperty().bind(p.widthProperty().divide(2).subtract(m.getSize()/2));
+                g.translateYProperty().bind(p.heightProperty().divide(2).subtract(m.getSize()/2));
+                p.getChildren().addAll(l,g);
+                inner.addRow(activeRow++,p,new Text(entry.description));
+            }; break;
+            case MARKER: {
+                Marker m = new Marker().setAttribs(Defaults.DEFAULT_MARKER_SIZE, 1, entry.color);
+                Group g = m.draw(entry.markerType);
+                Pane p = new Pane();
+                g.translateXProperty().bind(p.widthProperty().divide(2).subtract(m.getSize()/2));
+                g.translateYProperty().bind(p.heightProperty().divide(2).subtract(m.getSize()/2));
+                p.getChildren().add(g);
+                inner.addRow(activeRow++,p,new Text(entry.description));
+            }; break;
+            case BAR: {
+                Rectangle rect = new Rectangle();
+                rect.widthProperty().set(40);
+                rect.heightProperty().set(15);
+                rect.setFill(entry.color);
+                rect.setStroke(Color.BLACK);
+                inner.addRow(activeRow++,rect,new Text(entry.description));
+            }; break;
+        }
     }
     
     /**
      * Sets a black border around the legend.
      */
     public void outline() {
-        node.setStyle("-fx-border-color: black;-fx-background-color: white;");
-        node.applyCss();
+        outlined = true;
+        if (node != null) {
+            node.setStyle("-fx-border-color: black;-fx-background-color: white;");
+            node.applyCss();
+        }
     }
     
     // Component interface
@@ -193,6 +348,7 @@ public class Legend implements Component {
      */
     @Override
     public void position(DoubleBinding translateX, DoubleBinding translateY) {
+        build();
         node.translateXProperty().bind(translateX.add(hOffsetProperty));
         node.translateYProperty().bind(translateY.add(vOffsetProperty));
     }
@@ -204,6 +360,7 @@ public class Legend implements Component {
      */
     @Override
     public void align(HPos alignX, VPos alignY) {
+        build();
         switch (alignY) {
             case CENTER: {
                 vOffsetProperty.unbind();
@@ -240,7 +397,7 @@ public class Legend implements Component {
      */
     @Override
     public Node getNode() {
-        return node;
+        return build();
     }
     
 }
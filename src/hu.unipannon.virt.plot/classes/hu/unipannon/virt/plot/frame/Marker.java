@@ -26,6 +26,7 @@ package hu.unipannon.virt.plot.frame;
 import javafx.css.Size;
 import javafx.css.SizeUnits;
 import javafx.scene.Group;
+import javafx.scene.canvas.GraphicsContext;
 import javafx.scene.paint.Paint;
 import javafx.scene.shape.Circle;
 import javafx.scene.shape.Line;
@@ -141,6 +142,101 @@ public class Marker {
         return result;
     }
     
+    /**
+     * Draws the marker given by the type onto a canvas with the stored 
+     * parameters (color, width, size). Produces the same shapes as the 
+     * <code>draw()</code> function, without creating any Scene Graph nodes.
+     * @param gc graphics context of the target canvas.
+     * @param type type of the marker in MarkerType enum.
+     * @param x x coordinate of the marker's center in pixels.
+     * @param y y coordinate of the marker's center in pixels.
+     */
+    public void paint(GraphicsContext gc, MarkerType type, double x, double y) {
+        double half = size / 2.d;
+        double diag = (Math.sqrt(2.d) / 2.d) * half;
+        gc.setStroke(color);
+        gc.setFill(color);
+        gc.setLineWidth(width);
+        gc.setLineDashes();
+        switch (type) {
+            case ASTERISK:
+                gc.strokeLine(x - half, y, x + half, y);
+                gc.strokeLine(x, y - half, x, y + half);
+                gc.strokeLine(x - diag, y + diag, x + diag, y - diag);
+                gc.strokeLine(x - diag, y - diag, x + diag, y + diag);
+                break;
+            case CIRCLE:
+                gc.strokeOval(x - half, y - half, size, size);
+                break;
+            case CROSS:
+                gc.strokeLine(x - half, y - half, x + half, y + half);
+                gc.strokeLine(x - half, y + half, x + half, y - half);
+                break;
+            case DOT:
+                gc.fillOval(x - half / 2.d, y - half / 2.d, half, half);
+                gc.strokeOval(x - half / 2.d, y - half / 2.d, half, half);
+                break;
+            case PLUS:
+                gc.strokeLine(x - half, y, x + half, y);
+                gc.strokeLine(x, y - half, x, y + half);
+                break;
+            default:
+                break;
+        }
+    }
+    
+    /**
+     * Appends the outline of the marker given by the type to an SVG path, using
+     * the stored size. Produces the same shapes as the <code>draw()</code> 
+     * function, so the markers of a whole data series can be displayed as a 
+     * single path shape.
+     * @param path SVG path data the outline is appended to.
+     * @param type type of the marker in MarkerType enum.
+     * @param x x coordinate of the marker's center in pixels.
+     * @param y y coordinate of the marker's center in pixels.
+     */
+    public void outline(StringBuilder path, MarkerType type, double x, double y) {
+        double half = size / 2.d;
+        double diag = (Math.sqrt(2.d) / 2.d) * half;
+        switch (type) {
+            case ASTERISK:
+                segment(path, x - half, y, x + half, y);
+                segment(path, x, y - half, x, y + half);
+                segment(path, x - diag, y + diag, x + diag, y - diag);
+                segment(path, x - diag, y - diag, x + diag, y + diag);
+                break;
+            case CIRCLE:
+                ring(path, x, y, half);
+                break;
+            case CROSS:
+                segment(path, x - half, y - half, x + half, y + half);
+                segment(path, x - half, y + half, x + half, y - half);
+                break;
+            case DOT:
+                ring(path, x, y, half / 2.d);
+                break;
+            case PLUS:
+                segment(path, x - half, y, x + half, y);
+                segment(path, x, y - half, x, y + half);
+                break;
+            default:
+                break;
+        }
+    }
+
+    private static void segment(StringBuilder path, double x1, double y1, double x2, double y2) {
+        PathData.point(path.append('M'), x1, y1);
+        PathData.point(path.append('L'), x2, y2);
+    }
+
+    private static void ring(StringBuilder path, double x, double y, double r) {
+        PathData.point(path.append('M'), x + r, y);
+        PathData.point(path.append('A'), r, r).append(" 0 0 1 ");
+        PathData.point(path, x - r, y);
+        PathData.point(path.append('A'), r, r).append(" 0 0 1 ");
+        PathData.point(path, x + r, y).append('Z');
+    }
+
     /**
      * Creates a Group representing an asterisk (*) type marker.
      * @return JavaFX group of the marker.
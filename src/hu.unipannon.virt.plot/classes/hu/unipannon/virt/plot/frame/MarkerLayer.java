@@ -0,0 +1,135 @@
+/*
+MIT License
+
+Copyright (c) 2023 Electrical Brain Imaging Lab
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+*/
+package hu.unipannon.virt.plot.frame;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import javafx.css.Size;
+import javafx.css.SizeUnits;
+import javafx.scene.Group;
+import javafx.scene.Node;
+import javafx.scene.paint.Paint;
+import javafx.scene.shape.SVGPath;
+
+/**
+ * Batched representation of the markers of a data series.
+ * Instead of a Group of shapes with bound translate properties for every data 
+ * point, the markers sharing the same color are outlined in a single path 
+ * shape, which is rebuilt from the stored normalized coordinates when the size 
+ * of the Plot Space changes. The outline is kept as SVG path data, so no 
+ * Scene Graph objects are created for the individual markers.
+ * 
+ * @see Marker
+ * @see PlotSpace
+ * @author Tóth Bálint
+ */
+public class MarkerLayer extends Group implements PlotLayer {
+
+    private double[] dom, im;
+    private double[] size;
+    private Paint[] color;
+    private double width;
+    private Marker.MarkerType markerType;
+
+    /**
+     * Creates a marker layer of a data series. The arrays are not copied.
+     * @param dom normalized X coordinates of the data points.
+     * @param im normalized Y coordinates of the data points.
+     * @param size sizes of the markers in points. If contains 1 element, it will be used for all points.
+     * @param color colors of the markers. If contains 1 item, it will be used for all points.
+     * @param width width of the marker lines in points.
+     * @param markerType type of the markers.
+     */
+    public MarkerLayer(double[] dom, double[] im, double[] size, Paint[] color, double width, Marker.MarkerType markerType) {
+        this.dom = dom;
+        this.im = im;
+        this.size = size;
+        this.color = color;
+        this.width = width;
+        this.markerType = markerType;
+        setMouseTransparent(true);
+    }
+
+    /**
+     * PlotLayer interface implementation, outlines the markers for the given 
+     * Plot Space size with one path per marker color.
+     * @param w width of the Plot Space in pixels.
+     * @param h height of the Plot Space in pixels.
+     */
+    @Override
+    public void layout(double w, double h) {
+        boolean sameSize = size.length == 1;
+        boolean sameColor = color.length == 1;
+
+        Map<Paint, StringBuilder> outlines = new LinkedHashMap<>();
+        Marker marker = new Marker().setAttribs(size[0], width, color[0]);
+        StringBuilder outline = null;
+        Paint last = null;
+        for (int i=0;i<dom.length;i++) {
+            // gaps of the data have no markers
+            if (!Double.isFinite(dom[i]) || !Double.isFinite(im[i]))
+                continue;
+            Paint c = sameColor ? color[0] : color[i];
+            if (!sameSize)
+                marker.setAttribs(size[i], width, c);
+            // consecutive points usually share the color
+            if (outline == null || !c.equals(last)) {
+                outline = outlines.computeIfAbsent(c, k -> new StringBuilder());
+                last = c;
+            }
+            marker.outline(outline, markerType, w * dom[i], h - h * im[i]);
+        }
+
+        // paths are reused between layout passes
+        var paths = getChildren();
+        if (paths.size() > outlines.size())
+            paths.remove(outlines.size(), paths.size());
+        int i = 0;
+        for (var entry : outlines.entrySet()) {
+            SVGPath path;
+            if (i < paths.size()) {
+                path = (SVGPath)paths.get(i);
+            } else {
+                path = new SVGPath();
+                path.setStrokeWidth(new Size(width, SizeUnits.PT).pixels());
+                paths.add(path);
+            }
+            path.setStroke(entry.getKey());
+            // only the dot marker is filled
+            path.setFill(markerType == Marker.MarkerType.DOT ? entry.getKey() : null);
+            path.setContent(entry.getValue().toString());
+            i++;
+        }
+    }
+
+    /**
+     * PlotLayer interface implementation.
+     * @return the layer itself.
+     */
+    @Override
+    public Node getNode() {
+        return this;
+    }
+}
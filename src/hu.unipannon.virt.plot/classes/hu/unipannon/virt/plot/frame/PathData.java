@@ -0,0 +1,69 @@
+/*
+MIT License
+
+Copyright (c) 2023 Electrical Brain Imaging Lab
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+*/
+package hu.unipannon.virt.plot.frame;
+
+/**
+ * Helper for writing SVG path data with fixed point coordinates.
+ * The batched layers of the Plot Space describe thousands of shapes with a 
+ * single path, and formatting the coordinates with two decimals is much cheaper
+ * than the general purpose double to string conversion.
+ * 
+ * @see MarkerLayer
+ * @see BarLayer
+ * @author Tóth Bálint
+ */
+final class PathData {
+
+    private PathData() {}
+
+    /**
+     * Appends a point as a pair of coordinates separated by a space.
+     * @param path SVG path data.
+     * @param x x coordinate in pixels.
+     * @param y y coordinate in pixels.
+     * @return the path data.
+     */
+    static StringBuilder point(StringBuilder path, double x, double y) {
+        return coordinate(coordinate(path, x).append(' '), y);
+    }
+
+    /**
+     * Appends a coordinate rounded to two decimals.
+     * @param path SVG path data.
+     * @param v value of the coordinate.
+     * @return the path data.
+     */
+    static StringBuilder coordinate(StringBuilder path, double v) {
+        long hundredths = Math.round(v * 100);
+        if (hundredths < 0) {
+            path.append('-');
+            hundredths = -hundredths;
+        }
+        long fraction = hundredths % 100;
+        path.append(hundredths / 100).append('.');
+        if (fraction < 10)
+            path.append('0');
+        return path.append(fraction);
+    }
+}
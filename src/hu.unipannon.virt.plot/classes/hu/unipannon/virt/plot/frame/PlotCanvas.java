@@ -0,0 +1,367 @@
+/*
+MIT License
+
+Copyright (c) 2023 Electrical Brain Imaging Lab
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+*/
+package hu.unipannon.virt.plot.frame;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import hu.unipannon.virt.plot.fluent.Defaults;
+import javafx.css.Size;
+import javafx.css.SizeUnits;
+import javafx.scene.Node;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.paint.Color;
+import javafx.scene.paint.Paint;
+
+/**
+ * Canvas based rendering backend of the Plot Space.
+ * Instead of creating a Path with bound MoveTo and LineTo elements for every 
+ * data point, the canvas stores the normalized arrays of the data series and 
+ * redraws all of them in a single pass when the size of the Plot Space changes.
+ * Items are painted in the order they were added, so the error areas stay 
+ * below their lines just like in the node based mode. Adding items does not
+ * repaint the canvas, the Plot Space requests a single redraw on its next 
+ * layout pass. Every item remembers the data series it belongs to, so a 
+ * single series can be removed or hidden.
+ * 
+ * @see PlotSpace
+ * @see RenderMode
+ * @author Tóth Bálint
+ */
+public class PlotCanvas extends Canvas implements PlotLayer {
+
+    /**
+     * A graphical item that can paint itself onto the canvas.
+     */
+    private static interface Item {
+        void paint(GraphicsContext gc, double width, double height);
+    }
+
+    /**
+     * Stores a data line with its style, works like <code>PlotSpace.addLine()</code>.
+     */
+    private static class LineItem implements Item {
+        private double[] dom, im;
+        private Paint color;
+        private double width;
+        private StrokeStyle style;
+        private Marker.MarkerType markerType;
+
+        private LineItem(double[] dom, double[] im, Paint color, double width, StrokeStyle style, Marker.MarkerType markerType) {
+            this.dom = dom;
+            this.im = im;
+            this.color = color;
+            this.width = width;
+            this.style = style;
+            this.markerType = markerType;
+        }
+
+        @Override
+        public void paint(GraphicsContext gc, double w, double h) {
+            gc.setStroke(color);
+            gc.setLineWidth(new Size(width,SizeUnits.PT).pixels());
+            gc.setLineDashes(style.getDashArray());
+            gc.beginPath();
+            boolean drawing = false;
+            for (int i=0;i<dom.length;i++) {
+                if (!Double.isFinite(dom[i]) || !Double.isFinite(im[i]))
+                    drawing = false;
+                else if (drawing)
+                    gc.lineTo(w * dom[i], h - h * im[i]);
+                else {
+                    gc.moveTo(w * dom[i], h - h * im[i]);
+                    drawing = true;
+                }
+            }
+            gc.stroke();
+
+            if (markerType != Marker.MarkerType.NONE) {
+                Marker marker = new Marker().setAttribs(Defaults.DEFAULT_MARKER_SIZE, width, color);
+                for (int i=0;i<dom.length;i++)
+                    if (Double.isFinite(dom[i]) && Double.isFinite(im[i]))
+                        marker.paint(gc, markerType, w * dom[i], h - h * im[i]);
+            }
+        }
+    }
+
+    /**
+     * Stores a patch between a lower and an upper line, works like 
+     * <code>PlotSpace.addPatch()</code>.
+     */
+    private static class PatchItem implements Item {
+        private double[] dom, lower, upper;
+        private Paint color;
+
+        private PatchItem(double[] dom, double[] lower, double[] upper, Paint color) {
+            this.dom = dom;
+            this.lower = lower;
+            this.upper = upper;
+            this.color = color;
+        }
+
+        @Override
+        public void paint(GraphicsContext gc, double w, double h) {
+            gc.setFill(color);
+            gc.beginPath();
+            int start = -1;
+            for (int i=0;i<=dom.length;i++) {
+                boolean finite = i < dom.length && Double.isFinite(dom[i])
+                    && Double.isFinite(lower[i]) && Double.isFinite(upper[i]);
+                if (finite && start < 0)
+                    start = i;
+                if (finite || start < 0)
+                    continue;
+                // a finite run ended, its shape is added
+                gc.moveTo(w * dom[start], h - h * upper[start]);
+                for (int j=start+1;j<i;j++)
+                    gc.lineTo(w * dom[j], h - h * upper[j]);
+                for (int j=i-1;j>=start;j--)
+                    gc.lineTo(w * dom[j], h - h * lower[j]);
+                gc.closePath();
+                start = -1;
+            }
+            gc.fill();
+        }
+    }
+
+    /**
+     * Stores the markers of a data series, works like <code>PlotSpace.addScatter()</code>.
+     */
+    private static class MarkerItem implements Item {
+        private double[] dom, im, size;
+        private Paint[] color;
+        private double width;
+        private Marker.MarkerType markerType;
+
+        private MarkerItem(double[] dom, double[] im, double[] size, Paint[] color, double width, Marker.MarkerType markerType) {
+            this.dom = dom;
+            this.im = im;
+            this.size = size;
+            this.color = color;
+            this.width = width;
+            this.markerType = markerType;
+        }
+
+        @Override
+        public void paint(GraphicsContext gc, double w, double h) {
+            boolean sameSize = size.length == 1;
+            boolean sameColor = color.length == 1;
+            Marker marker = new Marker().setAttribs(size[0], width, color[0]);
+            for (int i=0;i<dom.length;i++) {
+                if (!Double.isFinite(dom[i]) || !Double.isFinite(im[i]))
+                    continue;
+                if (!sameSize || !sameColor)
+                    marker.setAttribs(sameSize ? size[0] : size[i], width, sameColor ? color[0] : color[i]);
+                marker.paint(gc, markerType, w * dom[i], h - h * im[i]);
+            }
+        }
+    }
+
+    /**
+     * Stores the bars of a Bar plot, works like <code>PlotSpace.addBar()</code>.
+     */
+    private static class BarItem implements Item {
+        private BarGeometry bars;
+        private Paint[] color;
+
+        private BarItem(BarGeometry bars, Paint[] color) {
+            this.bars = bars;
+            this.color = color;
+        }
+
+        @Override
+        public void paint(GraphicsContext gc, double w, double h) {
+            gc.setStroke(Color.BLACK);
+            gc.setLineWidth(new Size(1, SizeUnits.PT).pixels());
+            gc.setLineDashes();
+            for (int index=0;index<bars.x.length;index++) {
+                double x = w * bars.x[index];
+                double y = h * bars.y[index];
+                double bw = w * bars.w[index];
+                double bh = h * bars.h[index];
+                gc.setFill(color[index / bars.groupCount]);
+                gc.fillRect(x, y, bw, bh);
+                gc.strokeRect(x, y, bw, bh);
+            }
+        }
+    }
+
+    private List<Item> items;
+    private List<Integer> itemSeries;
+    private Integer activeSeries;
+    private Set<Integer> hidden;
+
+    /**
+     * Creates an empty canvas. Its size is set by the owner Plot Space.
+     */
+    public PlotCanvas() {
+        items = new ArrayList<>();
+        itemSeries = new ArrayList<>();
+        activeSeries = null;
+        hidden = new HashSet<>();
+        // the canvas should not catch the mouse events of the legend and the frame
+        setMouseTransparent(true);
+    }
+
+    /**
+     * Adds a data line to the canvas. Parameters are the same as the ones of 
+     * <code>PlotSpace.addLine()</code>, and the arrays are not copied.
+     * @param dom normalized X coordinates of the line's individual data points.
+     * @param im normalized Y coordinates of the line's data points.
+     * @param color color of the lines as JavaFX Paint object.
+     * @param width width of the line in points.
+     * @param style style of the line.
+     * @param markerType type of the markers. (Can be <code>Marker.MarkerType.NONE</code>.)
+     */
+    public void addLine(double[] dom, double[] im, Paint color, double width, StrokeStyle style, Marker.MarkerType markerType) {
+        add(new LineItem(dom, im, color, width, style, markerType));
+    }
+
+    /**
+     * Adds a patch to the canvas. Parameters are the same as the ones of 
+     * <code>PlotSpace.addPatch()</code>, and the arrays are not copied.
+     * @param dom normalized X coordinates of the domain points of the lower and upper line.
+     * @param lower normalized Y coordinates of the lower line's points.
+     * @param upper normalized Y coordinates of the upper line's points.
+     * @param color color of the patch in JavaFX Paint format.
+     */
+    public void addPatch(double[] dom, double[] lower, double[] upper, Paint color) {
+        add(new PatchItem(dom, lower, upper, color));
+    }
+
+    /**
+     * Adds the markers of a data series to the canvas. Parameters are the same 
+     * as the ones of <code>PlotSpace.addScatter()</code>, and the arrays are 
+     * not copied.
+     * @param dom normalized X coordinates of the data points.
+     * @param im normalized Y coordinates of the data points.
+     * @param size sizes of the markers in points. If contains 1 element, it will be used for all points.
+     * @param color colors of the markers. If contains 1 item, it will be used for all points.
+     * @param width width of the marker lines in points.
+     * @param markerType type of the markers.
+     */
+    public void addMarkers(double[] dom, double[] im, double[] size, Paint[] color, double width, Marker.MarkerType markerType) {
+        add(new MarkerItem(dom, im, size, color, width, markerType));
+    }
+
+    /**
+     * Adds the bars of a Bar plot to the canvas.
+     * @param bars normalized geometry of the bars.
+     * @param color array of colors, used to separate items in a data group.
+     */
+    void addBars(BarGeometry bars, Paint[] color) {
+        add(new BarItem(bars, color));
+    }
+
+    private void add(Item item) {
+        items.add(item);
+        itemSeries.add(activeSeries);
+    }
+
+    /**
+     * Sets the data series of the items added after this call.
+     * @param id identifier of the series.
+     */
+    public void setSeries(int id) {
+        activeSeries = id;
+    }
+
+    /**
+     * Removes every item from the canvas.
+     */
+    public void clear() {
+        items.clear();
+        itemSeries.clear();
+        activeSeries = null;
+        redraw();
+    }
+
+    /**
+     * Removes the items of a single data series from the canvas. Does not 
+     * repaint the canvas.
+     * @param id identifier of the series.
+     */
+    public void clearSeries(int id) {
+        Integer series = id;
+        for (int i=items.size()-1;i>=0;i--) {
+            if (series.equals(itemSeries.get(i))) {
+                items.remove(i);
+                itemSeries.remove(i);
+            }
+        }
+    }
+
+    /**
+     * Shows or hides the items of a data series. Does not repaint the canvas.
+     * @param id identifier of the series.
+     * @param visible visibility of the series.
+     */
+    public void setSeriesVisible(int id, boolean visible) {
+        if (visible)
+            hidden.remove(id);
+        else
+            hidden.add(id);
+    }
+
+    /**
+     * Paints every stored item onto a cleared canvas.
+     */
+    public void redraw() {
+        double w = getWidth();
+        double h = getHeight();
+        GraphicsContext gc = getGraphicsContext2D();
+        gc.clearRect(0, 0, w, h);
+        if (w <= 0 || h <= 0)
+            return;
+        for (int i=0;i<items.size();i++) {
+            Integer series = itemSeries.get(i);
+            if (series == null || !hidden.contains(series))
+                items.get(i).paint(gc, w, h);
+        }
+    }
+
+    /**
+     * PlotLayer interface implementation, resizes the canvas and redraws it.
+     * @param width width of the Plot Space in pixels.
+     * @param height height of the Plot Space in pixels.
+     */
+    @Override
+    public void layout(double width, double height) {
+        setWidth(width);
+        setHeight(height);
+        redraw();
+    }
+
+    /**
+     * PlotLayer interface implementation.
+     * @return the canvas itself.
+     */
+    @Override
+    public Node getNode() {
+        return this;
+    }
+}
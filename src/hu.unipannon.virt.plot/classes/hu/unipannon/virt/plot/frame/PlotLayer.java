@@ -0,0 +1,50 @@
+/*
+MIT License
+
+Copyright (c) 2023 Electrical Brain Imaging Lab
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+*/
+package hu.unipannon.virt.plot.frame;
+
+import javafx.scene.Node;
+
+/**
+ * Common interface for graphical items inside the Plot Space that compute their
+ * geometry from the size of the Plot Space instead of binding every point to 
+ * its properties. The Plot Space calls <code>layout()</code> at most once per
+ * layout pass, after its width or height changed.
+ * @see PlotSpace
+ * @author Tóth Bálint
+ */
+public interface PlotLayer {
+    /**
+     * Recomputes the layer's geometry for the given Plot Space size.
+     * @param width width of the Plot Space in pixels.
+     * @param height height of the Plot Space in pixels.
+     */
+    void layout(double width, double height);
+
+    /**
+     * Getter for the contained JavaFX node.
+     * @return contained Scene Graph node of the layer, or null if the layer
+     * only updates other items of the Plot Space.
+     */
+    Node getNode();
+}
@@ -23,7 +23,13 @@ SOFTWARE.
 */
 package hu.unipannon.virt.plot.frame;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
 import hu.unipannon.virt.plot.fluent.Defaults;
+import javafx.beans.InvalidationListener;
 import javafx.beans.binding.DoubleBinding;
 import javafx.beans.property.DoubleProperty;
 import javafx.beans.property.SimpleDoubleProperty;
@@ -38,7 +44,6 @@ import javafx.scene.paint.Paint;
 import javafx.scene.shape.LineTo;
 import javafx.scene.shape.MoveTo;
 import javafx.scene.shape.Path;
-import javafx.scene.shape.Rectangle;
 /**
  * The Plot Space is the section in the frame surrounded by the axes.
  * The Plot Space contains the legend and the plot type specific graphical items,
@@ -49,12 +54,23 @@ import javafx.scene.shape.Rectangle;
  * Properties are established based on the MATLAB graph system, so the base point
  * is the bottom left, and the width / height are given. Items inside the Plot Space
  * can bind to the plot space's properties.
+ * <br>
+ * Data series can either be added as bound Scene Graph nodes, or drawn onto a 
+ * canvas, based on the render mode of the Plot Space. Items that compute their
+ * geometry from the size of the Plot Space are stored as layers, and they are
+ * laid out once per layout pass after a resize.
+ * <br>
+ * Addressable data series have their own Group inside the Plot Space, so one
+ * series can be updated or hidden without rebuilding the others.
  * 
  * @see Frame
+ * @see RenderMode
+ * @see PlotLayer
+ * @see PlotSurface
  * @see Component
  * @author Tóth Bálint
  */
-public class PlotSpace extends Group implements Component {
+public class PlotSpace extends Group implements Component, PlotSurface {
     
     private DoubleProperty widthProperty;
     private DoubleProperty heightProperty;
@@ -63,6 +79,19 @@ public class PlotSpace extends Group implements Component {
     private DoubleProperty vOffsetProperty;
 
     private Frame parent;
+
+    private Group series;
+    private Group target;
+    private Map<Integer, Group> seriesGroups;
+    private Integer activeSeries;
+
+    private RenderMode renderMode;
+    private PlotCanvas canvas;
+
+    private List<PlotLayer> layers;
+    private List<PlotLayer> seriesLayers;
+    private Map<PlotLayer, Integer> layerSeries;
+    private boolean layersDirty;
     
     /**
      * Creates a new Plot Space instance with a reference to its parent Frame.
@@ -75,7 +104,25 @@ public class PlotSpace extends Group implements Component {
         
         hOffsetProperty = new SimpleDoubleProperty();
         vOffsetProperty = new SimpleDoubleProperty();
-        
+
+        // data series are kept below the legend and the layers
+        series = new Group();
+        getChildren().add(series);
+        target = series;
+        seriesGroups = new HashMap<>();
+        activeSeries = null;
+
+        renderMode = Defaults.DEFAULT_RENDER_MODE;
+        canvas = null;
+        layers = new ArrayList<>();
+        seriesLayers = new ArrayList<>();
+        layerSeries = new HashMap<>();
+        layersDirty = false;
+
+        // resize only marks the layers, they are laid out once in the next pass
+        InvalidationListener resize = (observable) -> invalidateLayers();
+        widthProperty.addListener(resize);
+        heightProperty.addListener(resize);
     }
 
     /**
@@ -159,6 +206,180 @@ public class PlotSpace extends Group implements Component {
         return heightProperty;
     }
     
+    /**
+     * Sets the rendering backend of the data series. Only affects the items 
+     * added after this call.
+     * @param mode render mode of the Plot Space.
+     */
+    public void setRenderMode(RenderMode mode) {
+        this.renderMode = mode;
+    }
+
+    /**
+     * Query for the rendering backend of the data series.
+     * @return render mode of the Plot Space.
+     */
+    public RenderMode getRenderMode() {
+        return renderMode;
+    }
+
+    /**
+     * Adds a layer to the Plot Space. The layer's node is added on top of the
+     * previously added items, and it will be laid out on every resize. 
+     * Layers without a node are only laid out.
+     * @param layer layer to be added.
+     */
+    @Override
+    public void addLayer(PlotLayer layer) {
+        layers.add(layer);
+        if (layer.getNode() != null)
+            getChildren().add(layer.getNode());
+        invalidateLayers();
+    }
+
+    /**
+     * Removes every data series (lines, patches, bars and scatter markers) 
+     * from the Plot Space, including the ones drawn onto the canvas. 
+     * The legend and the layers are kept, and the addressable series keep 
+     * their visibility.
+     */
+    @Override
+    public void clearSeries() {
+        layers.removeAll(seriesLayers);
+        seriesLayers.clear();
+        layerSeries.clear();
+        series.getChildren().retainAll(seriesGroups.values());
+        for (Group g : seriesGroups.values())
+            g.getChildren().clear();
+        target = series;
+        activeSeries = null;
+        if (canvas != null)
+            canvas.clear();
+        invalidateLayers();
+    }
+
+    /**
+     * Starts an addressable data series. The items added until the next call
+     * are placed in the Group of the series.
+     * @param id identifier of the series.
+     */
+    @Override
+    public void beginSeries(int id) {
+        activeSeries = id;
+        target = getSeriesGroup(id);
+        if (canvas != null)
+            canvas.setSeries(id);
+    }
+
+    /**
+     * Removes the items of a single data series, including its layers and its
+     * items drawn onto the canvas. The other series are not touched.
+     * @param id identifier of the series.
+     */
+    @Override
+    public void clearSeries(int id) {
+        Group g = seriesGroups.get(id);
+        if (g == null)
+            return;
+        g.getChildren().clear();
+        Integer key = id;
+        for (int i=seriesLayers.size()-1;i>=0;i--) {
+            PlotLayer layer = seriesLayers.get(i);
+            if (key.equals(layerSeries.get(layer))) {
+                seriesLayers.remove(i);
+                layerSeries.remove(layer);
+                layers.remove(layer);
+            }
+        }
+        if (canvas != null)
+            canvas.clearSeries(id);
+        invalidateLayers();
+    }
+
+    /**
+     * Shows or hides a single data series.
+     * @param id identifier of the series.
+     * @param visible visibility of the series.
+     */
+    @Override
+    public void setSeriesVisible(int id, boolean visible) {
+        getSeriesGroup(id).setVisible(visible);
+        if (canvas != null || renderMode == RenderMode.CANVAS) {
+            getCanvas().setSeriesVisible(id, visible);
+            invalidateLayers();
+        }
+    }
+
+    /**
+     * Query for the Group of an addressable series, creates it on the first
+     * call. New groups are placed above the previously added data series.
+     * @param id identifier of the series.
+     * @return group of the series.
+     */
+    private Group getSeriesGroup(int id) {
+        Group g = seriesGroups.get(id);
+        if (g == null) {
+            g = new Group();
+            seriesGroups.put(id, g);
+            series.getChildren().add(g);
+        }
+        return g;
+    }
+
+    /**
+     * Marks the layers for a new layout, that happens in the next layout pass.
+     */
+    public void invalidateLayers() {
+        layersDirty = true;
+        requestLayout();
+    }
+
+    /**
+     * Lays out the layers if the size of the Plot Space changed, or new items 
+     * were added to them since the last layout pass. Layers added during the 
+     * pass are laid out in the same pass.
+     */
+    @Override
+    protected void layoutChildren() {
+        super.layoutChildren();
+        if (layersDirty) {
+            layersDirty = false;
+            // indexed loop, as a layer can replace the data series
+            for (int i=0;i<layers.size();i++)
+                layers.get(i).layout(widthProperty.get(), heightProperty.get());
+        }
+    }
+
+    /**
+     * Adds a layer that belongs to a data series, so it is removed with the 
+     * other data series.
+     * @param layer layer of the data series.
+     */
+    private void addSeriesLayer(PlotLayer layer) {
+        layers.add(layer);
+        seriesLayers.add(layer);
+        if (activeSeries != null)
+            layerSeries.put(layer, activeSeries);
+        target.getChildren().add(layer.getNode());
+        invalidateLayers();
+    }
+
+    /**
+     * Query for the canvas of the Plot Space, creates it on the first call.
+     * The canvas is placed below every other item.
+     * @return canvas of the data series.
+     */
+    private PlotCanvas getCanvas() {
+        if (canvas == null) {
+            canvas = new PlotCanvas();
+            if (activeSeries != null)
+                canvas.setSeries(activeSeries);
+            layers.add(canvas);
+            getChildren().add(0, canvas);
+        }
+        return canvas;
+    }
+    
     // lines can be paths (instead of polylines, so I can bind the lines), bars can be rectangles
     
     // dom and im are already normalised
@@ -166,6 +387,9 @@ public class PlotSpace extends Group implements Component {
      * Adds a data line to the plot space. Every item needs to be given to the function.
      * The domain and image of the data must be of same length and containing values
      * in the [0;1] interval. The function draws lines between these points.
+     * Non-finite (NaN) points are gaps of the line, every finite run of points 
+     * is drawn as a separate sub-path.
+     * In canvas render mode the line is drawn onto the canvas of the Plot Space.
      * @param dom normalized X coordinates of the line's individual data points.
      * @param im normalized Y coordinates of the line's data points.
      * @param color color of the lines as JavaFX Paint object.
@@ -173,6 +397,7 @@ public class PlotSpace extends Group implements Component {
      * @param style style of the line.
      * @param markerType type of the markers. (Can be <code>Marker.MarkerType.NONE</code>.)
      */
+    @Override
     public void addLine(double[] dom, double[] im, Paint color, double width, StrokeStyle style, Marker.MarkerType markerType) {
         // array length check
         if (dom.length != im.length)
@@ -180,55 +405,51 @@ public class PlotSpace extends Group implements Component {
         
         if (dom.length < 2)
             return;
+
+        if (renderMode == RenderMode.CANVAS) {
+            getCanvas().addLine(dom, im, color, width, style, markerType);
+            invalidateLayers();
+            return;
+        }
         
-        // the line itself
+        // the line itself, a sub-path for every finite run
         Path path = new Path();
-        MoveTo m = new MoveTo();
-        m.xProperty().bind(widthProperty.multiply(dom[0]));
-        m.yProperty().bind(heightProperty.subtract(heightProperty.multiply(im[0])));
-        path.getElements().add(m);
-        
-        for (int i=1;i<dom.length;i++) {
+        boolean drawing = false;
+        for (int i=0;i<dom.length;i++) {
+            if (!Double.isFinite(dom[i]) || !Double.isFinite(im[i])) {
+                drawing = false;
+                continue;
+            }
+            if (!drawing) {
+                MoveTo m = new MoveTo();
+                m.xProperty().bind(widthProperty.multiply(dom[i]));
+                m.yProperty().bind(heightProperty.subtract(heightProperty.multiply(im[i])));
+                path.getElements().add(m);
+                drawing = true;
+                continue;
+            }
             // this would be ideal, but the style will mess it up
             LineTo l = new LineTo();
             l.xProperty().bind(widthProperty.multiply(dom[i]));
             l.yProperty().bind(heightProperty.subtract(heightProperty.multiply(im[i])));
             path.getElements().add(l);
         }
-        getChildren().add(path);
+        target.getChildren().add(path);
         
         // color and style
         path.setStroke(color);
-        //path.getStrokeDashArray().addAll(10d,5d,3d,5d);
         path.setStrokeWidth(new Size(width,SizeUnits.PT).pixels());
-        
-        switch (style) {
-            case NORMAL:
-                break;
-            case DASH:
-                path.getStrokeDashArray().addAll(8d,11d);
-                break;
-            case DOT:
-                path.getStrokeDashArray().addAll(2d);
-                break;
-            case DASH_DOT:
-                path.getStrokeDashArray().addAll(10d,5d,3d,5d);
-                break;
-            default:
-                break;
-        }
+        for (double dash : style.getDashArray())
+            path.getStrokeDashArray().add(dash);
         
         
-        // marker
+        // markers of the whole line in a single layer
         if (markerType != Marker.MarkerType.NONE) {
-            Marker marker = new Marker().setAttribs(Defaults.DEFAULT_MARKER_SIZE, width, color);
-            for (int i=0;i<dom.length;i++) {
-                // getting the marker
-                Group mk = marker.draw(markerType);
-                mk.translateXProperty().bind(widthProperty.multiply(dom[i]).subtract(marker.getSize() / 2));
-                mk.translateYProperty().bind(heightProperty.subtract(heightProperty.multiply(im[i])).subtract(marker.getSize() / 2));      
-                getChildren().add(mk);
-            }
+            addSeriesLayer(new MarkerLayer(dom, im, 
+                                           new double[] {Defaults.DEFAULT_MARKER_SIZE},
+                                           new Paint[] {color},
+                                           width,
+                                           markerType));
         }
         
     }
@@ -238,55 +459,75 @@ public class PlotSpace extends Group implements Component {
      * Can be used to display intervals. The domain, lower and upper lines must 
      * be of the same length and contain values in the [0;1] interval.
      * Vertical edges of the patch are connected with vertical lines.
+     * Non-finite (NaN) points are gaps of the patch, every finite run of points 
+     * is filled as a separate shape.
+     * In canvas render mode the patch is drawn onto the canvas of the Plot Space.
      * @param dom normalized X coordinates of the domain points of the lower and upper line.
      * @param lower normalized Y coordinates of the upper line's points.
      * @param upper normalized Y coordinates of the lower line's points.
      * @param color color of the patch in JavaFX Paint format. (Can be RGBA for transparency, or multiple images of Nicholas Cage for comedic effect.)
      */
+    @Override
     public void addPatch(double[] dom, double[] lower, double[] upper, Paint color) {
         if (dom.length != upper.length || dom.length != lower.length) 
             return;
         
         if (dom.length < 2)
             return;
-        
-        Path p = new Path();
-        MoveTo initial = new MoveTo();
-        initial.xProperty().bind(widthProperty.multiply(dom[0]));
-        initial.yProperty().bind(heightProperty.subtract(heightProperty.multiply(upper[0])));
-        p.getElements().add(initial);
-        
-        for (int i=1;i<dom.length;i++) {
-            LineTo m = new LineTo();
-            m.xProperty().bind(widthProperty.multiply(dom[i]));
-            m.yProperty().bind(heightProperty.subtract(heightProperty.multiply(upper[i])));
-            p.getElements().add(m);
+
+        if (renderMode == RenderMode.CANVAS) {
+            getCanvas().addPatch(dom, lower, upper, color);
+            invalidateLayers();
+            return;
         }
         
-        LineTo reverse = new LineTo();
-        reverse.xProperty().bind(widthProperty.multiply(dom[dom.length-1]));
-        reverse.yProperty().bind(heightProperty.subtract(heightProperty.multiply(lower[dom.length-1])));
-        p.getElements().add(reverse);
-        
-        for (int i=dom.length-2;i>=0;i--) {
-            LineTo m = new LineTo();
-            m.xProperty().bind(widthProperty.multiply(dom[i]));
-            m.yProperty().bind(heightProperty.subtract(heightProperty.multiply(lower[i])));
-            p.getElements().add(m);
+        Path p = new Path();
+        int start = -1;
+        for (int i=0;i<=dom.length;i++) {
+            boolean finite = i < dom.length && Double.isFinite(dom[i])
+                && Double.isFinite(lower[i]) && Double.isFinite(upper[i]);
+            if (finite && start < 0)
+                start = i;
+            if (finite || start < 0)
+                continue;
+            // a finite run ended, its shape is added
+            MoveTo initial = new MoveTo();
+            initial.xProperty().bind(widthProperty.multiply(dom[start]));
+            initial.yProperty().bind(heightProperty.subtract(heightProperty.multiply(upper[start])));
+            p.getElements().add(initial);
+            
+            for (int j=start+1;j<i;j++) {
+                LineTo m = new LineTo();
+                m.xProperty().bind(widthProperty.multiply(dom[j]));
+                m.yProperty().bind(heightProperty.subtract(heightProperty.multiply(upper[j])));
+                p.getElements().add(m);
+            }
+            
+            for (int j=i-1;j>=start;j--) {
+                LineTo m = new LineTo();
+                m.xProperty().bind(widthProperty.multiply(dom[j]));
+                m.yProperty().bind(heightProperty.subtract(heightProperty.multiply(lower[j])));
+                p.getElements().add(m);
+            }
+            start = -1;
         }
         
-        LineTo finish = new LineTo();
-        finish.xProperty().bind(widthProperty.multiply(dom[0]));
-        finish.yProperty().bind(heightProperty.subtract(heightProperty.multiply(upper[0])));
-        
         p.setFill(color);
         p.setStroke(Color.TRANSPARENT);
         //p.fillProperty().set(color);
-        getChildren().add(p);
+        target.getChildren().add(p);
     }
     
-    // either this, or the line is going to be modified somehow different (not sure if we need it)
-    public void /*some line*/ getLine(/*some identifier*/) {}
+    /**
+     * Query for the Scene Graph nodes of an addressable data series. 
+     * In canvas render mode the lines are drawn onto the canvas, so the group 
+     * only contains the layers of the series.
+     * @param id identifier of the series.
+     * @return group of the series, or null if there is no such series.
+     */
+    public Group getLine(int id) {
+        return seriesGroups.get(id);
+    }
     
     // dom and im are normalised
     /**
@@ -305,6 +546,7 @@ public class PlotSpace extends Group implements Component {
      * @param width [0;1] normalised width of a bar or group. Bars fill in their available space based on this value. (0: bars are invisible, 1: bars fill in the max aval. space)
      * @param style style of the bar plot, can be Stacked or Grouped.
      */
+    @Override
     public void addBar(double[] dom, double[] im, double baselineOffset, Paint[] color, double width, BarStyle style) {   
         
         if (im.length % dom.length != 0)
@@ -342,6 +584,7 @@ public class PlotSpace extends Group implements Component {
      * @param width [0;1] normalised width of a bar or group. Bars fill in their available space based on this value. (0: bars are invisible, 1: bars fill in the max aval. space)
      * @param style style of the bar plot, can be Stacked or Grouped.
      */
+    @Override
     public void addHBar(double[] dom, double[] im, double baselineOffset, Paint[] color, double width, BarStyle style) {   
         
         if (im.length % dom.length != 0)
@@ -366,13 +609,15 @@ public class PlotSpace extends Group implements Component {
      * Adds a scatter data series to the Plot Space, works like the <code>addLine()</code>
      * function, except this one does not connect the data points with lines.
      * The domain and image of the data must be of same length and containing values
-     * in the [0;1] interval. The function draws lines between these points.
+     * in the [0;1] interval. The markers of the series are drawn in a single 
+     * layer, or onto the canvas of the Plot Space in canvas render mode.
      * @param dom normalized X coordinates of the series' individual data points.
      * @param im normalized Y coordinates of the series' data points.     
      * @param size sizes of the different markers representing the data points. If contains 1 element, it will be used for all points.
      * @param color colors of the markers representing the data points. If contains 1 item, it will be used for all points.
      * @param markerType type of the markers.
      */
+    @Override
     public void addScatter(double[] dom, double[] im, double[] size, Paint[] color, Marker.MarkerType markerType) {
         boolean sameSize = size.length == 1;
         boolean sameColor = color.length == 1;
@@ -383,23 +628,57 @@ public class PlotSpace extends Group implements Component {
             return;
         if (!sameColor && color.length != dom.length)
             return;
+        if (dom.length == 0)
+            return;
 
         // TODO marker width somehow
-        
-        for (int i=0;i<dom.length;i++) {
-            // getting the marker
-            Marker marker = new Marker().setAttribs(
-                sameSize ? size[0] : size[i],
-                1, 
-                sameColor ? color[0] : color[i]);
-            Group mk = marker.draw(markerType);
-            mk.translateXProperty().bind(widthProperty.multiply(dom[i]).subtract(marker.getSize() / 2));
-            mk.translateYProperty().bind(heightProperty.subtract(heightProperty.multiply(im[i])).subtract(marker.getSize() / 2));      
-            getChildren().add(mk);
+
+        if (renderMode == RenderMode.CANVAS) {
+            getCanvas().addMarkers(dom, im, size, color, 1, markerType);
+            invalidateLayers();
+            return;
         }
+
+        addSeriesLayer(new MarkerLayer(dom, im, size, color, 1, markerType));
         
     }
     
+    /**
+     * Adds a scatter data series to the Plot Space as a density raster. 
+     * Every pixel gets the color of the series with an opacity based on the 
+     * number of data points inside it. The domain and image of the data must 
+     * be of same length and containing values in the [0;1] interval.
+     * @param dom normalized X coordinates of the series' individual data points.
+     * @param im normalized Y coordinates of the series' data points.
+     * @param color color of the series.
+     * @param mapping intensity mapping of the point counts.
+     */
+    @Override
+    public void addDensity(double[] dom, double[] im, Paint color, DensityMapping mapping) {
+        if (dom.length != im.length)
+            return;
+
+        addSeriesLayer(new DensityLayer(dom, im, color, mapping));
+    }
+
+    /**
+     * Adds vertical event markers to the plot space. The markers are outlined
+     * in a single path shape of a layer, which is rebuilt when the size of the
+     * Plot Space changes, so thousands of markers do not create thousands of 
+     * bound Scene Graph objects. It is used in both render modes.
+     * @param dom normalized X coordinates of the markers.
+     * @param labels texts written next to the tops of the markers, or null.
+     * @param color color of the markers.
+     * @param width width of the markers in points.
+     * @param style style of the markers.
+     */
+    @Override
+    public void addEventMarkers(double[] dom, String[] labels, Paint color, double width, StrokeStyle style) {
+        if (dom.length == 0)
+            return;
+        addSeriesLayer(new EventMarkerLayer(dom, labels, color, width, style));
+    }
+    
     /**
      * Adds a legend object to the Plot Space to the specified location. 
      * The legend's alignment position is based on the given position.
@@ -407,6 +686,7 @@ public class PlotSpace extends Group implements Component {
      * @param alignX horizontal position of the legend.
      * @param alignY vertical position of the legend.
      */
+    @Override
     public void addLegend(Legend l, HPos alignX, VPos alignY) {
         DoubleBinding vpos = heightProperty.divide(2);
         DoubleBinding hpos = widthProperty.divide(2);
@@ -453,60 +733,9 @@ public class PlotSpace extends Group implements Component {
      * @param horizontal boolean if the bar stlye is horizontal.
      */
     private void addStacked(double[] dom, double[] im, double baselineOffset, Paint[] color, double width, boolean horizontal) {
-        int groupSize = im.length / dom.length;
-        int groupCount = dom.length;
-        double availableWidth = groupCount > 0 ? dom[1] - dom[0] : 0.75;
-
-        
-        for (int group=0;group<groupCount;group++) {
-            double top = 0;
-            double bot = 0;
-            for (int i=0;i<groupSize;i++) {
-                int index = (i * groupCount) + group;
-                Rectangle r = new Rectangle();
-                if (horizontal) {
-                    // y position, probably static
-                    r.yProperty().bind(heightProperty.subtract(
-                            heightProperty.multiply(dom[group])).subtract(r.heightProperty().divide(2)));
-                    r.heightProperty().bind(heightProperty.multiply(width * availableWidth));
-
-                    // x position, needs to introduce the top/bottom to the translate
-                    r.xProperty().bind(widthProperty.multiply(baselineOffset));
-                    r.widthProperty().bind(widthProperty.multiply(Math.abs(im[index])));
-
-                    if (im[index] < 0) {
-                        r.translateXProperty().bind(widthProperty.multiply(im[index] - bot));
-                        bot -= im[index];
-                    } else {
-                        r.translateXProperty().bind(widthProperty.multiply(top));
-                        top += im[index];
-                    }
-                } else {
-                    // x position, probably static
-                    r.xProperty().bind(widthProperty.multiply(dom[group]).subtract(r.widthProperty().divide(2)));
-                    r.widthProperty().bind(widthProperty.multiply(width * availableWidth));
-
-                    // y position, needs to introduce the top/bottom to the translate
-                    r.yProperty().bind(heightProperty.subtract(heightProperty.multiply(baselineOffset)));
-                    r.heightProperty().bind(heightProperty.multiply(Math.abs(im[index])));
-
-                    if (im[index] < 0) {
-                        r.translateYProperty().bind(heightProperty.multiply(bot));
-                        bot -= im[index];
-                    } else {
-                        r.translateYProperty().bind(heightProperty.multiply(-im[index] - top));
-                        top += im[index];
-                    }
-                }
-                
-                // style and colour
-                r.setStroke(Color.BLACK);
-                r.setStrokeWidth(new Size(1, SizeUnits.PT).pixels());
-                r.setFill(color[i]);
-                getChildren().add(r);
-            }
-        }
-        
+        if (color.length < im.length / dom.length)
+            return;
+        addBars(BarGeometry.stacked(dom, im, baselineOffset, width, horizontal), color);
     }
     
     /**
@@ -519,71 +748,24 @@ public class PlotSpace extends Group implements Component {
      * @param horizontal boolean if the bar stlye is horizontal.
      */
     private void addGroup(double[] dom, double[] im, double baselineOffset, Paint[] color, double width, boolean horizontal) {
-        int groupSize = im.length / dom.length;
-        int groupCount = dom.length;
-        if (color.length < groupSize)
+        if (color.length < im.length / dom.length)
             return;
+        addBars(BarGeometry.grouped(dom, im, baselineOffset, width, horizontal), color);
+    }
 
-        // total width for a single group
-        double availableWidth = groupCount > 0 ? dom[1] - dom[0] : 0.75;
-
-        // for group size of one, it's 0, but for bigger groups, i'll just guess it
-        // calculated to every side of every group!
-        double groupPadding = groupSize == 1 ? 0 : 0.01;
-
-        double barWidth = (availableWidth - 2 * groupPadding) / (double)groupSize;
-
-        // the normal case is just a group size of 1
-        for (int group=0;group<groupCount;group++) {
-            for (int i=0;i<groupSize;i++) {       
-                int index = (i * groupCount) + group; // index it like a 2D array
-                Rectangle r = new Rectangle();
-                
-                if (horizontal) {
-                    
-                    r.yProperty().bind(heightProperty.subtract(
-                            heightProperty.multiply(dom[group])).subtract(r.heightProperty().divide(2)));
-                    r.heightProperty().bind(heightProperty.multiply(width * barWidth));
-
-                    // shift the bars
-                    r.translateYProperty().bind(heightProperty.multiply(
-                        (barWidth / 2) * (2*i + 1 - groupSize)
-                    ));
-
-                    // height and y position
-                    // start Y goes to the bottom of the rectangle
-                    r.xProperty().bind(widthProperty.multiply(baselineOffset));
-                    // height is the absolute relative height value
-                    r.widthProperty().bind(widthProperty.multiply(Math.abs(im[index])));
-                    // translating it down = it's equal to the height
-                    // if upper, then nothing else, if lower then the its height as extra
-                    r.translateXProperty().bind(widthProperty.multiply(im[index] < 0 ? im[index] : 0));
-                } else {
-                    // width and x position
-                    r.xProperty().bind(widthProperty.multiply(dom[group]).subtract(r.widthProperty().divide(2)));
-                    r.widthProperty().bind(widthProperty.multiply(width * barWidth));
-
-                    // shift the bars
-                    r.translateXProperty().bind(widthProperty.multiply(
-                        (barWidth / 2) * (2*i + 1 - groupSize)
-                    ));
-
-                    // height and y position
-                    // start Y goes to the bottom of the rectangle
-                    r.yProperty().bind(heightProperty.subtract(heightProperty.multiply(baselineOffset)));
-                    // height is the absolute relative height value
-                    r.heightProperty().bind(heightProperty.multiply(Math.abs(im[index])));
-                    // translating it down = it's equal to the height
-                    // if upper, then nothing else, if lower then the its height as extra
-                    r.translateYProperty().bind(heightProperty.multiply(-Math.abs(im[index]) - (im[index] < 0 ? im[index] : 0)));
-                }
-                // style and colour
-                r.setStroke(Color.BLACK);
-                r.setStrokeWidth(new Size(1, SizeUnits.PT).pixels());
-                r.setFill(color[i]);
-                getChildren().add(r);
-            }
+    /**
+     * Adds the computed bars as a single layer, or onto the canvas in canvas
+     * render mode.
+     * @param bars normalized geometry of the bars.
+     * @param color array of colors, used to separate items in a data group.
+     */
+    private void addBars(BarGeometry bars, Paint[] color) {
+        if (renderMode == RenderMode.CANVAS) {
+            getCanvas().addBars(bars, color);
+            invalidateLayers();
+            return;
         }
+        addSeriesLayer(new BarLayer(bars, color));
     }
 
 }
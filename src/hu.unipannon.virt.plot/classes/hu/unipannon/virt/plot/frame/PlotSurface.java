@@ -0,0 +1,160 @@
+/*
+MIT License
+
+Copyright (c) 2023 Electrical Brain Imaging Lab
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+*/
+package hu.unipannon.virt.plot.frame;
+
+import javafx.geometry.HPos;
+import javafx.geometry.VPos;
+import javafx.scene.paint.Paint;
+
+/**
+ * Drawing contract of the Plot Space used by the Plot Space Controllers.
+ * Every coordinate is normalized into the [0;1] interval of the surface, with 
+ * the origin at the bottom left corner. The JavaFX implementation is the 
+ * PlotSpace, other implementations can draw the same plots without the Scene 
+ * Graph, like the headless renderer.
+ * <br>
+ * Data series can be made addressable: the items added after 
+ * <code>beginSeries()</code> belong to the series with the given identifier, 
+ * so they can be removed or hidden together, without touching the others.
+ * 
+ * @see PlotSpace
+ * @author Tóth Bálint
+ */
+public interface PlotSurface {
+    /**
+     * Adds a data line to the surface.
+     * @param dom normalized X coordinates of the line's individual data points.
+     * @param im normalized Y coordinates of the line's data points.
+     * @param color color of the lines as JavaFX Paint object.
+     * @param width width of the line in points.
+     * @param style style of the line.
+     * @param markerType type of the markers. (Can be <code>Marker.MarkerType.NONE</code>.)
+     */
+    void addLine(double[] dom, double[] im, Paint color, double width, StrokeStyle style, Marker.MarkerType markerType);
+
+    /**
+     * Adds a color-filled patch between a lower and an upper line.
+     * @param dom normalized X coordinates of the domain points of the lower and upper line.
+     * @param lower normalized Y coordinates of the lower line's points.
+     * @param upper normalized Y coordinates of the upper line's points.
+     * @param color color of the patch.
+     */
+    void addPatch(double[] dom, double[] lower, double[] upper, Paint color);
+
+    /**
+     * Adds groups of vertical bars to the surface.
+     * @param dom normalized X coordinates of the data points (or groups).
+     * @param im normalized matrix of Y coordinates of the data points.
+     * @param baselineOffset offset value from the bottom line of the surface.
+     * @param color array of colors, used to separate items in a data group.
+     * @param width [0;1] normalised width of a bar or group.
+     * @param style style of the bar plot, can be Stacked or Grouped.
+     */
+    void addBar(double[] dom, double[] im, double baselineOffset, Paint[] color, double width, BarStyle style);
+
+    /**
+     * Adds groups of horizontal bars to the surface.
+     * @param dom normalized Y coordinates of the data points (or groups).
+     * @param im normalized matrix of X coordinates of the data points.
+     * @param baselineOffset offset value from the left side of the surface.
+     * @param color array of colors, used to separate items in a data group.
+     * @param width [0;1] normalised width of a bar or group.
+     * @param style style of the bar plot, can be Stacked or Grouped.
+     */
+    void addHBar(double[] dom, double[] im, double baselineOffset, Paint[] color, double width, BarStyle style);
+
+    /**
+     * Adds a scatter data series to the surface.
+     * @param dom normalized X coordinates of the series' individual data points.
+     * @param im normalized Y coordinates of the series' data points.
+     * @param size sizes of the markers. If contains 1 element, it will be used for all points.
+     * @param color colors of the markers. If contains 1 item, it will be used for all points.
+     * @param markerType type of the markers.
+     */
+    void addScatter(double[] dom, double[] im, double[] size, Paint[] color, Marker.MarkerType markerType);
+
+    /**
+     * Adds a scatter data series to the surface as a density raster.
+     * @param dom normalized X coordinates of the series' individual data points.
+     * @param im normalized Y coordinates of the series' data points.
+     * @param color color of the series.
+     * @param mapping intensity mapping of the point counts.
+     */
+    void addDensity(double[] dom, double[] im, Paint color, DensityMapping mapping);
+
+    /**
+     * Adds vertical event markers to the surface, like the annotations of a 
+     * recording. Every marker spans the whole height of the surface, and the 
+     * markers are drawn together as a single shape.
+     * @param dom normalized X coordinates of the markers.
+     * @param labels texts written next to the tops of the markers, or null.
+     * @param color color of the markers.
+     * @param width width of the markers in points.
+     * @param style style of the markers.
+     */
+    void addEventMarkers(double[] dom, String[] labels, Paint color, double width, StrokeStyle style);
+
+    /**
+     * Adds a legend to the surface at the specified location.
+     * @param l preconfigured legend to be added.
+     * @param alignX horizontal position of the legend.
+     * @param alignY vertical position of the legend.
+     */
+    void addLegend(Legend l, HPos alignX, VPos alignY);
+
+    /**
+     * Adds a layer that is laid out with the size of the surface.
+     * @param layer layer to be added.
+     */
+    void addLayer(PlotLayer layer);
+
+    /**
+     * Removes every data series from the surface. The legend and the layers 
+     * are kept.
+     */
+    void clearSeries();
+
+    /**
+     * Starts an addressable data series. The items added until the next call 
+     * belong to the series with the given identifier. If the series already
+     * exists, the new items are added to it, keeping its place in the drawing 
+     * order.
+     * @param id identifier of the series.
+     */
+    void beginSeries(int id);
+
+    /**
+     * Removes the items of a single data series. The series keeps its place
+     * in the drawing order and its visibility.
+     * @param id identifier of the series.
+     */
+    void clearSeries(int id);
+
+    /**
+     * Shows or hides the items of a single data series.
+     * @param id identifier of the series.
+     * @param visible visibility of the series.
+     */
+    void setSeriesVisible(int id, boolean visible);
+}
@@ -31,5 +31,22 @@ public enum StrokeStyle {
     NORMAL,
     DASH,
     DOT,
-    DASH_DOT,
+    DASH_DOT;
+
+    /**
+     * Query for the dash pattern of the stroke style.
+     * @return lengths of the dashes and gaps in pixels, empty for a continous line.
+     */
+    public double[] getDashArray() {
+        switch (this) {
+            case DASH:
+                return new double[] {8d,11d};
+            case DOT:
+                return new double[] {2d};
+            case DASH_DOT:
+                return new double[] {10d,5d,3d,5d};
+            default:
+                return new double[0];
+        }
+    }
 }
@@ -23,14 +23,13 @@ SOFTWARE.
 */
 package hu.unipannon.virt.plot.frame.horizontal;
 
-import java.util.LinkedList;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.stream.Stream;
+import javafx.beans.binding.DoubleBinding;
 import javafx.beans.property.DoubleProperty;
 import javafx.beans.property.SimpleDoubleProperty;
 import javafx.geometry.HPos;
 import javafx.geometry.VPos;
-import javafx.scene.Node;
 import javafx.scene.text.FontWeight;
 import hu.unipannon.virt.plot.frame.Container;
 import hu.unipannon.virt.plot.frame.Label;
@@ -39,18 +38,38 @@ import hu.unipannon.virt.plot.frame.Label;
  * The <code>HTickLabels</code> class implements the generation of the tick label
  * objects based on the divisor points, as well as contains functions to set the 
  * graphical properties of the labels. The class is a container and is usually
- * bound to the HorizontalAxis.
+ * bound to the HorizontalAxis.<br>
+ * The label objects are pooled: every label is bound to the position of its 
+ * divisor once, and when the divisors change only the positions and the texts
+ * of the labels are updated. New labels are only created if there are more 
+ * divisors than ever before.
  * 
  * @see HorizontalAxis
  * @author Tóth Bálint
  */
 public class HTickLabels extends Container {
     
+    /**
+     * Side of the axis the labels are generated for.
+     */
+    private enum Side { LOWER, UPPER, ORIGIN }
+    
     private double[] divisors;
     private String[] labels;
     
+    // displayed labels, the first ones of the pool
     List<Label> labelObjs;
     
+    // every label created for this side, and the divisor positions they are bound to
+    private List<Label> pool;
+    private List<DoubleProperty> positions;
+    private Side side;
+    
+    // font of the labels, kept for the labels created later
+    private String fontName;
+    private FontWeight fontWeight;
+    private int fontSize;
+    
     private DoubleProperty offsetPropertyA;
     
     /**
@@ -59,6 +78,13 @@ public class HTickLabels extends Container {
     public HTickLabels() {
         this.divisors = new double[]{};
         this.labels = new String[]{};
+        this.labelObjs = new ArrayList<>();
+        this.pool = new ArrayList<>();
+        this.positions = new ArrayList<>();
+        this.side = null;
+        this.fontName = "Arial";
+        this.fontWeight = FontWeight.LIGHT;
+        this.fontSize = 12;
         offsetPropertyA = new SimpleDoubleProperty();
     }
     
@@ -66,35 +92,23 @@ public class HTickLabels extends Container {
      * Setter for the divisor points and the labels displayed at those points. 
      * Divisors must be normalized to the [0;1] interval.
      * The two arrays must be of same size.
+     * The labels are updated by the next make function.
      * @param divisors normalized divisor points.
      * @param labels labels for the division points. 
      */
     public void setDivisors(double[] divisors, String[] labels) {
-        getChildren().clear();
         this.divisors = divisors;
         this.labels = labels;
-        this.labelObjs = new LinkedList<>();
     }
     
     /**
-     * Adds all labels to the inside JavaFX Group object aligned to the given
-     * positions.
+     * Aligns the displayed labels to the given positions.
      * @param hpos horizontal alignment positions of the labels.
      * @param vpos vertical alignment positions of the labels.
      */
     public void addLabels(HPos hpos, VPos vpos) {
-        getChildren().addAll(
-            labelObjs
-                .stream()
-                .map(
-                    (Label l) -> {
-                        l.align(hpos, vpos);
-                        l.setFont("Arial", FontWeight.LIGHT, 12);
-                        return l;
-                    })
-                .flatMap(
-                    (Label l) -> Stream.of(l.getNode()))
-                .toArray(Node[]::new));
+        for (Label l : labelObjs)
+            l.align(hpos, vpos);
         setOffset();
     }
     
@@ -105,9 +119,11 @@ public class HTickLabels extends Container {
      * @param height font size in points.
      */
     public void setLabelFont(String font, FontWeight weight, int height) {
-        labelObjs
-            .stream()
-            .forEach((Label l) -> l.setFont(font, weight, height));
+        fontName = font;
+        fontWeight = weight;
+        fontSize = height;
+        for (Label l : pool)
+            l.setFont(font, weight, height);
         setOffset();
     }
     
@@ -137,74 +153,97 @@ public class HTickLabels extends Container {
      * Generate lower tick labels.
      */
     public void makeLower() {
-        labelObjs.clear();
-        for (int i=0;i<divisors.length;i++) {
-            Label l = new Label(labels[i]);
-            l.position(
-                frameWidthPropertyA
-                    .multiply(plotSpaceLeftPropertyR
-                    .add(plotSpaceWidthPropertyR
-                        .multiply(divisors[i])))
-            ,
-                frameHeightPropertyA
-                    .subtract(frameHeightPropertyA
-                        .multiply(plotSpaceBottomPropertyR
-                            .subtract(gapOffsetPropertyR
-                            .add(outerTickLengthPropertyR))))
-            );
-            labelObjs.add(l);
-        }
-        addLabels(HPos.CENTER, VPos.TOP);
+        updateLabels(Side.LOWER, HPos.CENTER, VPos.TOP);
     }
     
     /**
      * Generate upper tick labels.
      */
     public void makeUpper() {
-        labelObjs.clear();
-        for (int i=0;i<divisors.length;i++) {
-            Label l = new Label(labels[i]);
-            l.position(
-                frameWidthPropertyA
-                    .multiply(plotSpaceLeftPropertyR
-                    .add(plotSpaceWidthPropertyR
-                        .multiply(divisors[i])))
-            ,
-                frameHeightPropertyA
-                    .subtract(frameHeightPropertyA
-                        .multiply(plotSpaceBottomPropertyR
-                            .add(plotSpaceHeightPropertyR)
-                            .add(gapOffsetPropertyR
-                            .add(outerTickLengthPropertyR))))
-            );
-            labelObjs.add(l);
-        }
-            addLabels(HPos.CENTER, VPos.BOTTOM);
+        updateLabels(Side.UPPER, HPos.CENTER, VPos.BOTTOM);
     }
     
     /**
      * Generate origin tick labels.
      */
     public void makeOrigin() {
-        labelObjs.clear();
-        for (int i=0;i<divisors.length;i++) {
-            Label l = new Label(labels[i]);
+        updateLabels(Side.ORIGIN, HPos.CENTER, VPos.TOP);
+    }
+    
+    /**
+     * Moves the pooled labels to the divisors and sets their texts. Labels 
+     * are only created if the pool is smaller than the number of divisors, 
+     * and only the labels of the divisors are kept in the container.
+     * @param side side of the axis.
+     * @param hpos horizontal alignment positions of the labels.
+     * @param vpos vertical alignment positions of the labels.
+     */
+    private void updateLabels(Side side, HPos hpos, VPos vpos) {
+        if (this.side != side) {
+            // the pooled labels are bound to the position of another side
+            getChildren().clear();
+            labelObjs.clear();
+            pool.clear();
+            positions.clear();
+            this.side = side;
+        }
+        while (pool.size() < divisors.length) {
+            DoubleProperty position = new SimpleDoubleProperty();
+            Label l = new Label();
             l.position(
                 frameWidthPropertyA
                     .multiply(plotSpaceLeftPropertyR
                     .add(plotSpaceWidthPropertyR
-                        .multiply(divisors[i])))
+                        .multiply(position)))
             ,
-                frameHeightPropertyA
+                labelY(side));
+            l.align(hpos, vpos);
+            l.setFont(fontName, fontWeight, fontSize);
+            pool.add(l);
+            positions.add(position);
+        }
+        for (int i=0;i<divisors.length;i++) {
+            positions.get(i).set(divisors[i]);
+            pool.get(i).setText(labels[i]);
+        }
+        
+        int shown = labelObjs.size();
+        if (shown > divisors.length)
+            getChildren().remove(divisors.length, shown);
+        for (int i=shown;i<divisors.length;i++)
+            getChildren().add(pool.get(i).getNode());
+        labelObjs = new ArrayList<>(pool.subList(0, divisors.length));
+        setOffset();
+    }
+    
+    /**
+     * Vertical position of the labels on a side of the axis.
+     * @param side side of the axis.
+     * @return binding of the vertical position.
+     */
+    private DoubleBinding labelY(Side side) {
+        switch (side) {
+            case UPPER:
+                return frameHeightPropertyA
+                    .subtract(frameHeightPropertyA
+                        .multiply(plotSpaceBottomPropertyR
+                            .add(plotSpaceHeightPropertyR)
+                            .add(gapOffsetPropertyR
+                            .add(outerTickLengthPropertyR))));
+            case ORIGIN:
+                return frameHeightPropertyA
                     .subtract(frameHeightPropertyA
                         .multiply(plotSpaceBottomPropertyR
                         .add(originHorizontalPropertyR.multiply(plotSpaceHeightPropertyR))
                         .subtract(gapOffsetPropertyR
-                            .add(outerTickLengthPropertyR))))
-            );
-            labelObjs.add(l);
+                            .add(outerTickLengthPropertyR))));
+            default:
+                return frameHeightPropertyA
+                    .subtract(frameHeightPropertyA
+                        .multiply(plotSpaceBottomPropertyR
+                            .subtract(gapOffsetPropertyR
+                            .add(outerTickLengthPropertyR))));
         }
-            addLabels(HPos.CENTER, VPos.TOP);
     }
     
 }
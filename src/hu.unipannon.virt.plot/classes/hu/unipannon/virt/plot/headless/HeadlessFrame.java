@@ -0,0 +1,431 @@
+/*
+MIT License
+
+Copyright (c) 2023 Electrical Brain Imaging Lab
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+*/
+package hu.unipannon.virt.plot.headless;
+
+import java.awt.BasicStroke;
+import java.awt.Font;
+import java.awt.FontMetrics;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.geom.AffineTransform;
+import java.awt.geom.Line2D;
+import java.awt.geom.Rectangle2D;
+
+import hu.unipannon.virt.plot.control.FrameController.XLocation;
+import hu.unipannon.virt.plot.control.FrameController.YLocation;
+import hu.unipannon.virt.plot.fluent.Defaults;
+
+/**
+ * Java2D counterpart of the Frame. Draws the axes, tick marks, tick labels, 
+ * axis labels and the title around a headless Plot Space, using the same 
+ * relative positions as the JavaFX Frame. The settings are stored, and the 
+ * frame is drawn with the size given at painting.
+ * 
+ * @see HeadlessPlotSpace
+ * @author Tóth Bálint
+ */
+public class HeadlessFrame {
+
+    // same proportions as the JavaFX frame
+    private final double PLOT_SPACE_LEFT = 0.13;
+    private final double PLOT_SPACE_BOTTOM = 0.11;
+    private final double PLOT_SPACE_WIDTH = 0.775;
+    private final double PLOT_SPACE_HEIGHT = 0.815;
+    private final double GAP = 0.01; // relative
+
+    private HeadlessPlotSpace plotSpace;
+
+    private String title;
+    private String xlabel;
+    private String ylabel;
+
+    private double innerTickLength;
+    private double outerTickLength;
+
+    private XLocation xLocation;
+    private YLocation yLocation;
+    private boolean box;
+    private boolean grid;
+
+    private double[] hDivisors;
+    private String[] hLabels;
+    private double[] vDivisors;
+    private String[] vLabels;
+
+    private double hOrigin;
+    private double vOrigin;
+    private boolean hOriginLine;
+    private boolean vOriginLine;
+
+    /**
+     * Default constructs a Frame with an empty Plot Space, and the default 
+     * settings of the Frame Controller.
+     */
+    public HeadlessFrame() {
+        plotSpace = new HeadlessPlotSpace();
+        title = null;
+        xlabel = null;
+        ylabel = null;
+        innerTickLength = 0.01;
+        outerTickLength = 0;
+        xLocation = XLocation.BOTTOM;
+        yLocation = YLocation.LEFT;
+        box = true;
+        grid = false;
+        hDivisors = new double[0];
+        hLabels = new String[0];
+        vDivisors = new double[0];
+        vLabels = new String[0];
+        hOrigin = 0;
+        vOrigin = 0;
+        hOriginLine = false;
+        vOriginLine = false;
+    }
+
+    /**
+     * Query for the Plot Space of the frame.
+     * @return plot space that can be filled in by a Plot Space Controller.
+     */
+    public HeadlessPlotSpace getPlotSpace() {
+        return plotSpace;
+    }
+
+    /**
+     * Sets the text of the title.
+     * @param title value of the title, or null to hide it.
+     */
+    public void setTitle(String title) {
+        this.title = title;
+    }
+
+    /**
+     * Sets the text of the horizontal axis label.
+     * @param xlabel value of the x label, or null to hide it.
+     */
+    public void setHorizontalLabel(String xlabel) {
+        this.xlabel = xlabel;
+    }
+
+    /**
+     * Sets the text of the vertical axis label.
+     * @param ylabel value of the y label, or null to hide it.
+     */
+    public void setVerticalLabel(String ylabel) {
+        this.ylabel = ylabel;
+    }
+
+    /**
+     * Sets the length of the tick marks relative to the width of the frame.
+     * @param inner length of the ticks inside the plot space.
+     * @param outer length of the ticks outside the plot space.
+     */
+    public void setTickLength(double inner, double outer) {
+        innerTickLength = inner;
+        outerTickLength = outer;
+    }
+
+    /**
+     * Sets the location of the axes that have tick labels and axis labels.
+     * @param xLocation location of the horizontal axis.
+     * @param yLocation location of the vertical axis.
+     */
+    public void setAxisLocation(XLocation xLocation, YLocation yLocation) {
+        this.xLocation = xLocation;
+        this.yLocation = yLocation;
+    }
+
+    /**
+     * Sets the border of the plot space.
+     * @param box true enables all the axis lines around the plot space.
+     */
+    public void setBox(boolean box) {
+        this.box = box;
+    }
+
+    /**
+     * Turns the grid on / off.
+     * @param grid grid toggle value.
+     */
+    public void setGrid(boolean grid) {
+        this.grid = grid;
+    }
+
+    /**
+     * Sets the tick positions and the tick labels of the horizontal axis.
+     * @param divisors [0;1] normalized positions of the ticks.
+     * @param labels labels of the ticks.
+     */
+    public void setHorizontalDivisors(double[] divisors, String[] labels) {
+        hDivisors = divisors;
+        hLabels = labels;
+    }
+
+    /**
+     * Sets the tick positions and the tick labels of the vertical axis.
+     * @param divisors [0;1] normalized positions of the ticks.
+     * @param labels labels of the ticks.
+     */
+    public void setVerticalDivisors(double[] divisors, String[] labels) {
+        vDivisors = divisors;
+        vLabels = labels;
+    }
+
+    /**
+     * Sets the position of the origin axes.
+     * @param horizontal [0;1] normalized height of the horizontal origin axis.
+     * @param vertical [0;1] normalized position of the vertical origin axis.
+     */
+    public void setOrigin(double horizontal, double vertical) {
+        hOrigin = horizontal;
+        vOrigin = vertical;
+    }
+
+    /**
+     * Shows the line of the horizontal origin axis, independently from the 
+     * axis location.
+     */
+    public void showHorizontalOriginLine() {
+        hOriginLine = true;
+    }
+
+    /**
+     * Shows the line of the vertical origin axis, independently from the 
+     * axis location.
+     */
+    public void showVerticalOriginLine() {
+        vOriginLine = true;
+    }
+
+    /**
+     * Draws the frame and its Plot Space.
+     * @param g graphics context to draw on, with the origin at the top left corner of the frame.
+     * @param width width of the frame in pixels.
+     * @param height height of the frame in pixels.
+     */
+    public void paint(Graphics2D g, int width, int height) {
+        g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        g.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+        g.setRenderingHint(RenderingHints.KEY_STROKE_CONTROL, RenderingHints.VALUE_STROKE_PURE);
+
+        double left = width * PLOT_SPACE_LEFT;
+        double top = height - height * (PLOT_SPACE_BOTTOM + PLOT_SPACE_HEIGHT);
+        double w = width * PLOT_SPACE_WIDTH;
+        double h = height * PLOT_SPACE_HEIGHT;
+
+        g.setColor(new java.awt.Color(0xea, 0xea, 0xea));
+        g.fillRect(0, 0, width, height);
+        g.setColor(java.awt.Color.WHITE);
+        g.fill(new Rectangle2D.Double(left, top, w, h));
+
+        if (grid) {
+            g.setColor(Java2D.color(Defaults.DEFAULT_GRID_COLOR));
+            g.setStroke(new BasicStroke((float)Java2D.pixels(Defaults.DEFAULT_GRID_WIDTH)));
+            for (double d : hDivisors)
+                g.draw(new Line2D.Double(left + w * d, top, left + w * d, top + h));
+            for (double d : vDivisors)
+                g.draw(new Line2D.Double(left, top + h - h * d, left + w, top + h - h * d));
+        }
+
+        AffineTransform transform = g.getTransform();
+        g.translate(left, top);
+        plotSpace.paint(g, w, h);
+        g.setTransform(transform);
+
+        g.setColor(Java2D.color(Defaults.DEFAULT_AXIS_COLOR));
+        g.setStroke(new BasicStroke((float)Java2D.pixels(Defaults.DEFAULT_AXIS_WIDTH)));
+        Font tickFont = new Font(Font.SANS_SERIF, Font.PLAIN, 12);
+        Font labelFont = new Font(Font.SANS_SERIF, Font.PLAIN, 14);
+        double inner = innerTickLength * width;
+        double outer = outerTickLength * width;
+        double gap = GAP * height;
+
+        // horizontal axes, the direction is the inside of the plot space
+        double lower = top + h;
+        double origin = top + h - h * hOrigin;
+        switch (xLocation) {
+            case TOP:
+                hAxis(g, top, 1, left, w, inner, outer);
+                hTickLabels(g, tickFont, left, w, top - gap - outer, false);
+                if (xlabel != null)
+                    hLabel(g, labelFont, left, w, labelY(g, tickFont, top - gap - outer, false), false);
+                if (box)
+                    hAxis(g, lower, -1, left, w, inner, outer);
+                break;
+            case ORIGIN:
+                hAxis(g, origin, -1, left, w, inner, outer);
+                hTickLabels(g, tickFont, left, w, origin + gap + outer, true);
+                if (xlabel != null)
+                    hLabel(g, labelFont, left, w, labelY(g, tickFont, origin + gap + outer, true), true);
+                if (box) {
+                    hAxis(g, top, 1, left, w, inner, outer);
+                    hAxis(g, lower, -1, left, w, inner, outer);
+                }
+                break;
+            default:
+                hAxis(g, lower, -1, left, w, inner, outer);
+                hTickLabels(g, tickFont, left, w, lower + gap + outer, true);
+                if (xlabel != null)
+                    hLabel(g, labelFont, left, w, labelY(g, tickFont, lower + gap + outer, true), true);
+                if (box)
+                    hAxis(g, top, 1, left, w, inner, outer);
+                break;
+        }
+        if (hOriginLine && xLocation != XLocation.ORIGIN)
+            g.draw(new Line2D.Double(left, origin, left + w, origin));
+
+        // vertical axes
+        double right = left + w;
+        double vorigin = left + w * vOrigin;
+        switch (yLocation) {
+            case RIGHT:
+                vAxis(g, right, -1, top, h, inner, outer);
+                vTickLabels(g, tickFont, top, h, right + gap + outer, false);
+                if (ylabel != null)
+                    vLabel(g, labelFont, top, h, labelX(g, tickFont, right + gap + outer, false), false);
+                if (box)
+                    vAxis(g, left, 1, top, h, inner, outer);
+                break;
+            case ORIGIN:
+                vAxis(g, vorigin, 1, top, h, inner, outer);
+                vTickLabels(g, tickFont, top, h, vorigin - gap - outer, true);
+                if (ylabel != null)
+                    vLabel(g, labelFont, top, h, labelX(g, tickFont, vorigin - gap - outer, true), true);
+                if (box) {
+                    vAxis(g, left, 1, top, h, inner, outer);
+                    vAxis(g, right, -1, top, h, inner, outer);
+                }
+                break;
+            default:
+                vAxis(g, left, 1, top, h, inner, outer);
+                vTickLabels(g, tickFont, top, h, left - gap - outer, true);
+                if (ylabel != null)
+                    vLabel(g, labelFont, top, h, labelX(g, tickFont, left - gap - outer, true), true);
+                if (box)
+                    vAxis(g, right, -1, top, h, inner, outer);
+                break;
+        }
+        if (vOriginLine && yLocation != YLocation.ORIGIN)
+            g.draw(new Line2D.Double(vorigin, top, vorigin, top + h));
+
+        if (title != null) {
+            Font titleFont = new Font(Font.SANS_SERIF, Font.BOLD, 16);
+            FontMetrics fm = g.getFontMetrics(titleFont);
+            g.setFont(titleFont);
+            g.drawString(title, 
+                         (float)(left + (w - fm.stringWidth(title)) / 2.d), 
+                         (float)(top - gap - fm.getDescent()));
+        }
+    }
+
+    /**
+     * Draws a horizontal axis line with its tick marks.
+     */
+    private void hAxis(Graphics2D g, double y, int inside, double left, double w, double inner, double outer) {
+        g.draw(new Line2D.Double(left, y, left + w, y));
+        for (double d : hDivisors) {
+            double x = left + w * d;
+            g.draw(new Line2D.Double(x, y - inside * outer, x, y + inside * inner));
+        }
+    }
+
+    /**
+     * Draws a vertical axis line with its tick marks.
+     */
+    private void vAxis(Graphics2D g, double x, int inside, double top, double h, double inner, double outer) {
+        g.draw(new Line2D.Double(x, top, x, top + h));
+        for (double d : vDivisors) {
+            double y = top + h - h * d;
+            g.draw(new Line2D.Double(x - inside * outer, y, x + inside * inner, y));
+        }
+    }
+
+    /**
+     * Draws the tick labels of the horizontal axis, centered under (or above) the ticks.
+     */
+    private void hTickLabels(Graphics2D g, Font font, double left, double w, double y, boolean below) {
+        FontMetrics fm = g.getFontMetrics(font);
+        g.setFont(font);
+        double baseline = below ? y + fm.getAscent() : y - fm.getDescent();
+        for (int i=0;i<hDivisors.length && i<hLabels.length;i++) {
+            double x = left + w * hDivisors[i];
+            g.drawString(hLabels[i], (float)(x - fm.stringWidth(hLabels[i]) / 2.d), (float)baseline);
+        }
+    }
+
+    /**
+     * Draws the tick labels of the vertical axis, aligned to the ticks.
+     */
+    private void vTickLabels(Graphics2D g, Font font, double top, double h, double x, boolean leftSide) {
+        FontMetrics fm = g.getFontMetrics(font);
+        g.setFont(font);
+        for (int i=0;i<vDivisors.length && i<vLabels.length;i++) {
+            double y = top + h - h * vDivisors[i];
+            double lx = leftSide ? x - fm.stringWidth(vLabels[i]) : x;
+            g.drawString(vLabels[i], (float)lx, (float)(y + (fm.getAscent() - fm.getDescent()) / 2.d));
+        }
+    }
+
+    /**
+     * Computes the outer edge of the horizontal tick labels.
+     */
+    private double labelY(Graphics2D g, Font font, double y, boolean below) {
+        FontMetrics fm = g.getFontMetrics(font);
+        return below ? y + fm.getHeight() : y - fm.getHeight();
+    }
+
+    /**
+     * Computes the outer edge of the vertical tick labels.
+     */
+    private double labelX(Graphics2D g, Font font, double x, boolean leftSide) {
+        FontMetrics fm = g.getFontMetrics(font);
+        int widest = 0;
+        for (String l : vLabels)
+            widest = Math.max(widest, fm.stringWidth(l));
+        return leftSide ? x - widest : x + widest;
+    }
+
+    /**
+     * Draws the horizontal axis label, centered to the plot space.
+     */
+    private void hLabel(Graphics2D g, Font font, double left, double w, double y, boolean below) {
+        FontMetrics fm = g.getFontMetrics(font);
+        g.setFont(font);
+        double baseline = below ? y + fm.getAscent() : y - fm.getDescent();
+        g.drawString(xlabel, (float)(left + (w - fm.stringWidth(xlabel)) / 2.d), (float)baseline);
+    }
+
+    /**
+     * Draws the vertical axis label rotated, centered to the plot space.
+     */
+    private void vLabel(Graphics2D g, Font font, double top, double h, double x, boolean leftSide) {
+        FontMetrics fm = g.getFontMetrics(font);
+        AffineTransform transform = g.getTransform();
+        g.setFont(font);
+        // the label is rotated, so the baseline runs upwards
+        g.translate(leftSide ? x - fm.getDescent() : x + fm.getAscent(), top + (h + fm.stringWidth(ylabel)) / 2.d);
+        g.rotate(-Math.PI / 2.d);
+        g.drawString(ylabel, 0f, 0f);
+        g.setTransform(transform);
+    }
+}
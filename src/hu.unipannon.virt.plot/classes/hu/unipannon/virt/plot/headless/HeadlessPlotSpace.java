@@ -0,0 +1,513 @@
+/*
+MIT License
+
+Copyright (c) 2023 Electrical Brain Imaging Lab
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+*/
+package hu.unipannon.virt.plot.headless;
+
+import java.awt.BasicStroke;
+import java.awt.Font;
+import java.awt.FontMetrics;
+import java.awt.Graphics2D;
+import java.awt.Shape;
+import java.awt.geom.Path2D;
+import java.awt.geom.Rectangle2D;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import javafx.geometry.HPos;
+import javafx.geometry.VPos;
+import javafx.scene.paint.Color;
+import javafx.scene.paint.Paint;
+import hu.unipannon.virt.plot.fluent.Defaults;
+import hu.unipannon.virt.plot.frame.BarGeometry;
+import hu.unipannon.virt.plot.frame.BarStyle;
+import hu.unipannon.virt.plot.frame.DensityMapping;
+import hu.unipannon.virt.plot.frame.DensityRaster;
+import hu.unipannon.virt.plot.frame.Legend;
+import hu.unipannon.virt.plot.frame.Marker;
+import hu.unipannon.virt.plot.frame.PlotLayer;
+import hu.unipannon.virt.plot.frame.PlotSurface;
+import hu.unipannon.virt.plot.frame.StrokeStyle;
+
+/**
+ * Plot Space implementation that draws on a Java2D graphics context.
+ * The data series are stored in the order they were added, and they are drawn
+ * every time the surface is painted, with the size given at painting. 
+ * Coordinates follow the same rules as the JavaFX Plot Space, so the Plot Space
+ * Controllers produce the same plots on both.
+ * 
+ * @see PlotSurface
+ * @see HeadlessFrame
+ * @author Tóth Bálint
+ */
+public class HeadlessPlotSpace implements PlotSurface {
+
+    /**
+     * A stored data series that can be drawn with a given surface size.
+     */
+    private static interface Item {
+        void paint(Graphics2D g, double w, double h);
+    }
+
+    private List<Item> items;
+    private List<Integer> itemSeries;
+    private Integer activeSeries;
+    private Set<Integer> hidden;
+    private List<PlotLayer> layers;
+
+    private Legend legend;
+    private HPos legendX;
+    private VPos legendY;
+
+    /**
+     * Default constructs an empty Plot Space.
+     */
+    public HeadlessPlotSpace() {
+        items = new ArrayList<>();
+        itemSeries = new ArrayList<>();
+        activeSeries = null;
+        hidden = new HashSet<>();
+        layers = new ArrayList<>();
+        legend = null;
+    }
+
+    @Override
+    public void addLine(double[] dom, double[] im, Paint color, double width, StrokeStyle style, Marker.MarkerType markerType) {
+        if (dom.length != im.length)
+            return;
+        if (dom.length < 2)
+            return;
+
+        double[] size = {Java2D.pixels(Defaults.DEFAULT_MARKER_SIZE)};
+        java.awt.Color c = Java2D.color(color);
+        double px = Java2D.pixels(width);
+        add((g, w, h) -> {
+            // a sub-path for every finite run
+            Path2D path = new Path2D.Double(Path2D.WIND_NON_ZERO, dom.length);
+            boolean drawing = false;
+            for (int i=0;i<dom.length;i++) {
+                if (!Double.isFinite(dom[i]) || !Double.isFinite(im[i]))
+                    drawing = false;
+                else if (drawing)
+                    path.lineTo(w * dom[i], h - h * im[i]);
+                else {
+                    path.moveTo(w * dom[i], h - h * im[i]);
+                    drawing = true;
+                }
+            }
+            g.setColor(c);
+            g.setStroke(Java2D.stroke(px, style));
+            g.draw(path);
+        });
+        if (markerType != Marker.MarkerType.NONE)
+            add(markers(dom, im, size, new java.awt.Color[] {c}, px, markerType));
+    }
+
+    @Override
+    public void addPatch(double[] dom, double[] lower, double[] upper, Paint color) {
+        if (dom.length != upper.length || dom.length != lower.length) 
+            return;
+        if (dom.length < 2)
+            return;
+
+        java.awt.Color c = Java2D.color(color);
+        add((g, w, h) -> {
+            Path2D path = new Path2D.Double(Path2D.WIND_NON_ZERO, 2 * dom.length);
+            int start = -1;
+            for (int i=0;i<=dom.length;i++) {
+                boolean finite = i < dom.length && Double.isFinite(dom[i])
+                    && Double.isFinite(lower[i]) && Double.isFinite(upper[i]);
+                if (finite && start < 0)
+                    start = i;
+                if (finite || start < 0)
+                    continue;
+                // a finite run ended, its shape is added
+                path.moveTo(w * dom[start], h - h * upper[start]);
+                for (int j=start+1;j<i;j++)
+                    path.lineTo(w * dom[j], h - h * upper[j]);
+                for (int j=i-1;j>=start;j--)
+                    path.lineTo(w * dom[j], h - h * lower[j]);
+                path.closePath();
+                start = -1;
+            }
+            g.setColor(c);
+            g.fill(path);
+        });
+    }
+
+    @Override
+    public void addBar(double[] dom, double[] im, double baselineOffset, Paint[] color, double width, BarStyle style) {
+        addBars(dom, im, baselineOffset, color, width, style, false);
+    }
+
+    @Override
+    public void addHBar(double[] dom, double[] im, double baselineOffset, Paint[] color, double width, BarStyle style) {
+        addBars(dom, im, baselineOffset, color, width, style, true);
+    }
+
+    private void addBars(double[] dom, double[] im, double baselineOffset, Paint[] color, double width, BarStyle style, boolean horizontal) {
+        if (im.length % dom.length != 0)
+            return;
+        if (color.length < im.length / dom.length)
+            return;
+
+        BarGeometry bars;
+        switch (style) {
+            case GROUPED:
+                bars = BarGeometry.grouped(dom, im, baselineOffset, width, horizontal);
+                break;
+            case STACKED:
+                bars = BarGeometry.stacked(dom, im, baselineOffset, width, horizontal);
+                break;
+            default:
+                return;
+        }
+
+        java.awt.Color[] colors = new java.awt.Color[bars.getGroupSize()];
+        for (int i=0;i<colors.length;i++)
+            colors[i] = Java2D.color(color[i]);
+        add((g, w, h) -> {
+            double[] x = bars.getX();
+            double[] y = bars.getY();
+            double[] bw = bars.getWidth();
+            double[] bh = bars.getHeight();
+            g.setStroke(new BasicStroke(1f));
+            // bars of the same color are continous
+            for (int i=0;i<bars.getGroupSize();i++) {
+                Path2D path = new Path2D.Double();
+                for (int j=i*bars.getGroupCount();j<(i+1)*bars.getGroupCount();j++)
+                    path.append(new Rectangle2D.Double(w * x[j], h * y[j], w * bw[j], h * bh[j]), false);
+                g.setColor(colors[i]);
+                g.fill(path);
+                g.setColor(java.awt.Color.BLACK);
+                g.draw(path);
+            }
+        });
+    }
+
+    @Override
+    public void addScatter(double[] dom, double[] im, double[] size, Paint[] color, Marker.MarkerType markerType) {
+        boolean sameSize = size.length == 1;
+        boolean sameColor = color.length == 1;
+
+        if (dom.length != im.length)
+            return;
+        if (!sameSize && size.length != dom.length)
+            return;
+        if (!sameColor && color.length != dom.length)
+            return;
+        if (dom.length == 0)
+            return;
+
+        double[] pixels = new double[size.length];
+        for (int i=0;i<size.length;i++)
+            pixels[i] = Java2D.pixels(size[i]);
+        java.awt.Color[] colors = new java.awt.Color[color.length];
+        for (int i=0;i<color.length;i++)
+            colors[i] = Java2D.color(color[i]);
+        add(markers(dom, im, pixels, colors, Java2D.pixels(1), markerType));
+    }
+
+    @Override
+    public void addDensity(double[] dom, double[] im, Paint color, DensityMapping mapping) {
+        if (dom.length != im.length)
+            return;
+        if (dom.length == 0)
+            return;
+
+        Color c = color instanceof Color ? (Color)color : Color.BLACK;
+        add((g, w, h) -> {
+            int cols = (int)Math.ceil(w);
+            int rows = (int)Math.ceil(h);
+            if (cols < 1 || rows < 1)
+                return;
+            BufferedImage image = new BufferedImage(cols, rows, BufferedImage.TYPE_INT_ARGB);
+            image.setRGB(0, 0, cols, rows, DensityRaster.raster(dom, im, cols, rows, c, mapping), 0, cols);
+            g.drawImage(image, 0, 0, null);
+        });
+    }
+
+    /**
+     * Stores the markers of a series, grouped by their color, so every color 
+     * is drawn as a single shape.
+     */
+    private static Item markers(double[] dom, double[] im, double[] size, java.awt.Color[] color, double width, Marker.MarkerType markerType) {
+        return (g, w, h) -> {
+            int groups = color.length;
+            Path2D[] paths = new Path2D[groups];
+            for (int i=0;i<groups;i++)
+                paths[i] = new Path2D.Double();
+            for (int i=0;i<dom.length;i++) {
+                // gaps of the data have no markers
+                if (!Double.isFinite(dom[i]) || !Double.isFinite(im[i]))
+                    continue;
+                Java2D.marker(paths[groups == 1 ? 0 : i], markerType, 
+                              w * dom[i], h - h * im[i], 
+                              size.length == 1 ? size[0] : size[i]);
+            }
+            g.setStroke(new BasicStroke((float)width));
+            for (int i=0;i<groups;i++) {
+                g.setColor(color[i]);
+                if (markerType == Marker.MarkerType.DOT)
+                    g.fill(paths[i]);
+                g.draw(paths[i]);
+            }
+        };
+    }
+
+    @Override
+    public void addEventMarkers(double[] dom, String[] labels, Paint color, double width, StrokeStyle style) {
+        if (dom.length == 0)
+            return;
+
+        java.awt.Color c = Java2D.color(color);
+        double px = Java2D.pixels(width);
+        Font font = new Font(Font.SANS_SERIF, Font.PLAIN, 10);
+        add((g, w, h) -> {
+            // every marker in a single path
+            Path2D path = new Path2D.Double(Path2D.WIND_NON_ZERO, 2 * dom.length);
+            for (var x : dom) {
+                if (!Double.isFinite(x))
+                    continue;
+                path.moveTo(w * x, 0);
+                path.lineTo(w * x, h);
+            }
+            g.setColor(c);
+            g.setStroke(Java2D.stroke(px, style));
+            g.draw(path);
+            if (labels == null)
+                return;
+            // labels overlapping the previous label are skipped
+            g.setFont(font);
+            FontMetrics fm = g.getFontMetrics(font);
+            double labelEnd = Double.NEGATIVE_INFINITY;
+            for (int i=0;i<dom.length;i++) {
+                double x = w * dom[i];
+                if (labels[i] == null || !Double.isFinite(x) || x + 2 < labelEnd)
+                    continue;
+                g.drawString(labels[i], (float)(x + 2), 10f);
+                labelEnd = x + 4 + fm.stringWidth(labels[i]);
+            }
+        });
+    }
+
+    @Override
+    public void addLegend(Legend l, HPos alignX, VPos alignY) {
+        legend = l;
+        legendX = alignX;
+        legendY = alignY;
+    }
+
+    @Override
+    public void addLayer(PlotLayer layer) {
+        layers.add(layer);
+    }
+
+    @Override
+    public void clearSeries() {
+        items.clear();
+        itemSeries.clear();
+        activeSeries = null;
+    }
+
+    @Override
+    public void beginSeries(int id) {
+        activeSeries = id;
+    }
+
+    @Override
+    public void clearSeries(int id) {
+        Integer key = id;
+        for (int i=items.size()-1;i>=0;i--) {
+            if (key.equals(itemSeries.get(i))) {
+                items.remove(i);
+                itemSeries.remove(i);
+            }
+        }
+    }
+
+    @Override
+    public void setSeriesVisible(int id, boolean visible) {
+        if (visible)
+            hidden.remove(id);
+        else
+            hidden.add(id);
+    }
+
+    private void add(Item item) {
+        items.add(item);
+        itemSeries.add(activeSeries);
+    }
+
+    /**
+     * Draws the stored data series and the legend. The layers are laid out 
+     * first, so they can add their series for the actual size. The origin of
+     * the graphics context needs to be at the top left corner of the surface.
+     * @param g graphics context to draw on.
+     * @param w width of the surface in pixels.
+     * @param h height of the surface in pixels.
+     */
+    public void paint(Graphics2D g, double w, double h) {
+        // layers can add or remove layers while laid out
+        for (int i=0;i<layers.size();i++)
+            layers.get(i).layout(w, h);
+
+        Shape clip = g.getClip();
+        g.clip(new Rectangle2D.Double(0, 0, w, h));
+        for (int i=0;i<items.size();i++) {
+            Integer series = itemSeries.get(i);
+            if (series == null || !hidden.contains(series))
+                items.get(i).paint(g, w, h);
+        }
+        g.setClip(clip);
+
+        if (legend != null)
+            paintLegend(g, w, h);
+    }
+
+    /**
+     * Draws the legend with the same layout as the JavaFX legend: graphical 
+     * items on the left, descriptions on the right, with an optional title.
+     */
+    private void paintLegend(Graphics2D g, double w, double h) {
+        final double padding = 5, hgap = 3, vgap = 5, sample = 40;
+        Font font = new Font(Font.SANS_SERIF, Font.PLAIN, 13);
+        Font titleFont = new Font(Font.SANS_SERIF, Font.BOLD, 14);
+        FontMetrics fm = g.getFontMetrics(font);
+        FontMetrics tfm = g.getFontMetrics(titleFont);
+
+        List<Legend.Entry> entries = legend.getEntries();
+        double textWidth = 0;
+        double rows = 0;
+        for (Legend.Entry e : entries) {
+            textWidth = Math.max(textWidth, fm.stringWidth(e.getDescription()));
+            rows += rowHeight(e, fm) + vgap;
+        }
+        if (!entries.isEmpty())
+            rows -= vgap;
+        double width = 2 * padding + sample + hgap + textWidth;
+        double height = 2 * padding + rows;
+        double titleHeight = 0;
+        if (legend.getTitle() != null) {
+            titleHeight = tfm.getHeight();
+            width = Math.max(width, tfm.stringWidth(legend.getTitle()));
+            height += titleHeight;
+        }
+
+        // same anchoring as the JavaFX plot space
+        final double offset = 0.1;
+        double x, y;
+        switch (legendX) {
+            case LEFT:
+                x = w * offset;
+                break;
+            case RIGHT:
+                x = w * (1.0 - offset) - width;
+                break;
+            default:
+                x = w / 2.d - width / 2.d;
+                break;
+        }
+        switch (legendY) {
+            case TOP:
+                y = h * offset;
+                break;
+            case BOTTOM:
+                y = h * (1.0 - offset) - height;
+                break;
+            default:
+                y = h / 2.d - height / 2.d;
+                break;
+        }
+
+        Rectangle2D box = new Rectangle2D.Double(x, y, width, height);
+        g.setColor(java.awt.Color.WHITE);
+        g.fill(box);
+        if (legend.isOutlined()) {
+            g.setColor(java.awt.Color.BLACK);
+            g.setStroke(new BasicStroke(1f));
+            g.draw(box);
+        }
+
+        if (legend.getTitle() != null) {
+            g.setFont(titleFont);
+            g.setColor(java.awt.Color.BLACK);
+            g.drawString(legend.getTitle(), 
+                         (float)(x + (width - tfm.stringWidth(legend.getTitle())) / 2.d), 
+                         (float)(y + tfm.getAscent()));
+        }
+
+        g.setFont(font);
+        double row = y + titleHeight + padding;
+        for (Legend.Entry e : entries) {
+            double rh = rowHeight(e, fm);
+            double cx = x + padding + sample / 2.d;
+            double cy = row + rh / 2.d;
+            java.awt.Color c = Java2D.color(e.getColor());
+            switch (e.getType()) {
+                case LINE: {
+                    g.setColor(c);
+                    g.setStroke(Java2D.stroke(Java2D.pixels(e.getWidth()), e.getStyle()));
+                    g.draw(new java.awt.geom.Line2D.Double(x + padding, cy, x + padding + sample, cy));
+                    paintMarker(g, e.getMarker(), cx, cy, c, Java2D.pixels(e.getWidth()));
+                }; break;
+                case MARKER: {
+                    paintMarker(g, e.getMarker(), cx, cy, c, Java2D.pixels(1));
+                }; break;
+                case BAR: {
+                    Rectangle2D rect = new Rectangle2D.Double(x + padding, cy - 7.5, sample, 15);
+                    g.setColor(c);
+                    g.fill(rect);
+                    g.setColor(java.awt.Color.BLACK);
+                    g.setStroke(new BasicStroke(1f));
+                    g.draw(rect);
+                }; break;
+            }
+            g.setColor(java.awt.Color.BLACK);
+            g.drawString(e.getDescription(), 
+                         (float)(x + padding + sample + hgap), 
+                         (float)(cy + (fm.getAscent() - fm.getDescent()) / 2.d));
+            row += rh + vgap;
+        }
+    }
+
+    private static double rowHeight(Legend.Entry e, FontMetrics fm) {
+        if (e.getType() == Legend.EntryType.BAR)
+            return Math.max(15, fm.getHeight());
+        return Math.max(Java2D.pixels(Defaults.DEFAULT_MARKER_SIZE), fm.getHeight());
+    }
+
+    private static void paintMarker(Graphics2D g, Marker.MarkerType type, double x, double y, java.awt.Color c, double width) {
+        if (type == Marker.MarkerType.NONE)
+            return;
+        Path2D path = new Path2D.Double();
+        Java2D.marker(path, type, x, y, Java2D.pixels(Defaults.DEFAULT_MARKER_SIZE));
+        g.setColor(c);
+        g.setStroke(new BasicStroke((float)width));
+        if (type == Marker.MarkerType.DOT)
+            g.fill(path);
+        g.draw(path);
+    }
+}
@@ -0,0 +1,131 @@
+/*
+MIT License
+
+Copyright (c) 2023 Electrical Brain Imaging Lab
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+*/
+package hu.unipannon.virt.plot.headless;
+
+import java.awt.BasicStroke;
+import java.awt.Stroke;
+import java.awt.geom.Ellipse2D;
+import java.awt.geom.Path2D;
+
+import javafx.css.Size;
+import javafx.css.SizeUnits;
+import javafx.scene.paint.Color;
+import javafx.scene.paint.Paint;
+import hu.unipannon.virt.plot.frame.Marker.MarkerType;
+import hu.unipannon.virt.plot.frame.StrokeStyle;
+
+/**
+ * Conversions from the JavaFX drawing attributes used by the library to their
+ * Java2D counterparts. Only the value classes of JavaFX are used, so the 
+ * toolkit is never started.
+ * 
+ * @author Tóth Bálint
+ */
+final class Java2D {
+
+    private Java2D() {}
+
+    /**
+     * Converts a JavaFX paint to an AWT color. Only plain colors are 
+     * supported, any other paint is drawn black.
+     * @param paint JavaFX paint object.
+     * @return AWT color with the same components and opacity.
+     */
+    static java.awt.Color color(Paint paint) {
+        if (!(paint instanceof Color))
+            return java.awt.Color.BLACK;
+        Color c = (Color)paint;
+        return new java.awt.Color((float)c.getRed(), (float)c.getGreen(), 
+                                  (float)c.getBlue(), (float)c.getOpacity());
+    }
+
+    /**
+     * Converts a length given in points to pixels.
+     * @param points length in points.
+     * @return length in pixels.
+     */
+    static double pixels(double points) {
+        return new Size(points, SizeUnits.PT).pixels();
+    }
+
+    /**
+     * Creates a line stroke with the dash pattern of the style.
+     * @param width width of the line in pixels.
+     * @param style style of the line.
+     * @return AWT stroke of the line.
+     */
+    static Stroke stroke(double width, StrokeStyle style) {
+        double[] dashes = style.getDashArray();
+        if (dashes.length == 0)
+            return new BasicStroke((float)width);
+        float[] pattern = new float[dashes.length];
+        for (int i=0;i<dashes.length;i++)
+            pattern[i] = (float)dashes[i];
+        return new BasicStroke((float)width, BasicStroke.CAP_SQUARE, 
+                               BasicStroke.JOIN_MITER, 10f, pattern, 0f);
+    }
+
+    /**
+     * Appends the outline of a marker to a path. Produces the same shapes as 
+     * the Marker of the frame package.
+     * @param path path the outline is appended to.
+     * @param type type of the marker.
+     * @param x x coordinate of the marker's center in pixels.
+     * @param y y coordinate of the marker's center in pixels.
+     * @param size size of the marker in pixels.
+     */
+    static void marker(Path2D path, MarkerType type, double x, double y, double size) {
+        double half = size / 2.d;
+        double diag = (Math.sqrt(2.d) / 2.d) * half;
+        switch (type) {
+            case ASTERISK:
+                segment(path, x - half, y, x + half, y);
+                segment(path, x, y - half, x, y + half);
+                segment(path, x - diag, y + diag, x + diag, y - diag);
+                segment(path, x - diag, y - diag, x + diag, y + diag);
+                break;
+            case CIRCLE:
+                path.append(new Ellipse2D.Double(x - half, y - half, size, size), false);
+                break;
+            case CROSS:
+                segment(path, x - half, y - half, x + half, y + half);
+                segment(path, x - half, y + half, x + half, y - half);
+                break;
+            case DOT:
+                path.append(new Ellipse2D.Double(x - half / 2.d, y - half / 2.d, half, half), false);
+                break;
+            case PLUS:
+                segment(path, x - half, y, x + half, y);
+                segment(path, x, y - half, x, y + half);
+                break;
+            default:
+                break;
+        }
+    }
+
+    private static void segment(Path2D path, double x1, double y1, double x2, double y2) {
+        path.moveTo(x1, y1);
+        path.lineTo(x2, y2);
+    }
+}
@@ -0,0 +1,45 @@
+/*
+MIT License
+
+Copyright (c) 2023 Electrical Brain Imaging Lab
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+*/
+
+/**
+ * The <code>headless</code> package draws the same plots as the <code>frame</code>
+ * package, but on a <code>java.awt.Graphics2D</code> instead of the JavaFX 
+ * Scene Graph. It does not need the JavaFX toolkit, a window or a display, so
+ * figures can be rendered straight into a <code>BufferedImage</code>, for 
+ * example on a server or in a batch job.
+ * <br><br>
+ * The Plot Space Controllers draw into the <code>HeadlessPlotSpace</code> 
+ * through the same <code>PlotSurface</code> contract they use with the JavaFX 
+ * Plot Space, and the <code>HeadlessFrame</code> paints the axes, tick labels,
+ * titles and the legend around it with the same proportions as the 
+ * <code>Frame</code>.
+ * <br>Example:<br>
+ * <pre>{@code
+ *   BufferedImage image = new Plot(x,y).render(800,600);
+ *   ImageIO.write(image, "png", new File("plot.png"));
+ * }</pre>
+ * 
+ * @author Tóth Bálint
+ */
+package hu.unipannon.virt.plot.headless;
@@ -0,0 +1,380 @@
+/*
+MIT License
+
+Copyright (c) 2023 Electrical Brain Imaging Lab
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+*/
+package hu.unipannon.virt.plot.util;
+
+import java.util.Arrays;
+
+import hu.unipannon.virt.plot.data.ExtremaIndex;
+import hu.unipannon.virt.plot.data.LinearSamples;
+import hu.unipannon.virt.plot.data.Samples;
+
+/**
+ * The Decimator class reduces large data series to the points that are 
+ * actually visible on the screen. The M4 aggregation keeps the first, the 
+ * minimal, the maximal and the last point of every pixel column, so the 
+ * rasterized line is the same as the one drawn from every data point, while the 
+ * number of drawn points is bounded by the width of the Plot Space.<br>
+ * The Largest-Triangle-Three-Buckets (LTTB) downsampling reduces a series to a
+ * fixed number of points that keep its visual shape, and it does not depend on
+ * the size of the screen.<br>
+ * The functions only accept non-decreasing domains, as the buckets and the 
+ * pixel columns must be visited in order. Every function reads the data 
+ * through Samples, so float series are decimated without converting them.
+ * 
+ * @author Tóth Bálint
+ */
+public class Decimator {
+
+    private Decimator() {}
+
+    /**
+     * Checks if the domain can be decimated.
+     * @param dom X coordinates of a data series.
+     * @return true if the domain is finite and non-decreasing.
+     */
+    public static boolean isMonotonic(double[] dom) {
+	return isMonotonic(Samples.of(dom));
+    }
+
+    /**
+     * Checks if the domain can be decimated. A domain with non-finite (NaN) 
+     * coordinates can not be clipped or aggregated with binary search, so 
+     * it is not monotonic, and its gaps are drawn without decimation.
+     * @param dom X coordinates of a data series.
+     * @return true if the domain is finite and non-decreasing.
+     */
+    public static boolean isMonotonic(Samples dom) {
+	if (dom instanceof LinearSamples) {
+	    LinearSamples linear = (LinearSamples)dom;
+	    return linear.getStep() >= 0 && Double.isFinite(linear.getStart())
+		&& Double.isFinite(linear.getStep());
+	}
+	double prev = Double.NEGATIVE_INFINITY;
+	for (int i=0;i<dom.size();i++) {
+	    double x = dom.get(i);
+	    if (!Double.isFinite(x) || x < prev)
+		return false;
+	    prev = x;
+	}
+	return true;
+    }
+
+    /**
+     * Computes the M4 aggregation of data series sharing the same domain.
+     * For every pixel column the first and the last point is kept, and the 
+     * minimal and maximal points of every given image, so data series drawn 
+     * together (like a patch and its edges) use the same points.
+     * @param dom normalized, non-decreasing X coordinates in the [0;1] interval.
+     * @param columns number of pixel columns the domain is drawn onto.
+     * @param ims normalized Y coordinates of the data series.
+     * @return ascending indices of the kept points, or null if the data already fits into the columns.
+     */
+    public static int[] m4(double[] dom, int columns, double[]... ims) {
+	Samples[] images = new Samples[ims.length];
+	for (int k=0;k<ims.length;k++)
+	    images[k] = Samples.of(ims[k]);
+	return m4(Samples.of(dom), 0, 1, columns, images);
+    }
+
+    /**
+     * Computes the M4 aggregation of data series sharing the same domain, 
+     * directly on the absolute values. The pixel column of a point is computed
+     * from the given window, so the series does not have to be normalized 
+     * before the aggregation, only the kept points.
+     * @param dom absolute, non-decreasing X coordinates.
+     * @param min absolute minimum value of the "display window".
+     * @param max absolute maximum value of the "display window".
+     * @param columns number of pixel columns the window is drawn onto.
+     * @param ims absolute Y coordinates of the data series.
+     * @return ascending indices of the kept points, or null if the data already fits into the columns.
+     */
+    public static int[] m4(Samples dom, double min, double max, int columns, Samples... ims) {
+	return m4(dom, 0, dom.size(), min, max, columns, ims);
+    }
+
+    /**
+     * Computes the M4 aggregation of a range of data series sharing the same 
+     * domain. Only the samples in the range are read, so the samples outside 
+     * of the "display window" are not loaded.
+     * @param dom absolute, non-decreasing X coordinates.
+     * @param from index of the first point of the range.
+     * @param to index after the last point of the range.
+     * @param min absolute minimum value of the "display window".
+     * @param max absolute maximum value of the "display window".
+     * @param columns number of pixel columns the window is drawn onto.
+     * @param ims absolute Y coordinates of the data series.
+     * @return ascending indices of the kept points, or null if the range already fits into the columns.
+     * @see #range(Samples, double, double)
+     */
+    public static int[] m4(Samples dom, int from, int to, double min, double max,
+			   int columns, Samples... ims) {
+	int perColumn = 2 + 2 * ims.length;
+	if (columns < 1 || to - from <= (long)columns * perColumn)
+	    return null;
+
+	int[] indices = new int[Math.min(to - from, columns * perColumn)];
+	int count = 0;
+
+	double span = max - min;
+	int[] bucket = new int[perColumn];
+	int column = column((dom.get(from) - min) / span, columns);
+	int first = from;
+	int[] mins = new int[ims.length];
+	int[] maxs = new int[ims.length];
+	Arrays.fill(mins, from);
+	Arrays.fill(maxs, from);
+	// values of the current extremes, so they are not read again
+	double[] minValues = new double[ims.length];
+	double[] maxValues = new double[ims.length];
+	for (int k=0;k<ims.length;k++) {
+	    minValues[k] = ims[k].get(from);
+	    maxValues[k] = minValues[k];
+	}
+
+	for (int i=from+1;i<=to;i++) {
+	    int c = i < to ? column((dom.get(i) - min) / span, columns) : -1;
+	    if (c == column) {
+		for (int k=0;k<ims.length;k++) {
+		    double y = ims[k].get(i);
+		    // a gap at the start of the column is not an extreme
+		    if (y < minValues[k] || Double.isNaN(minValues[k])) {
+			mins[k] = i;
+			minValues[k] = y;
+		    }
+		    if (y > maxValues[k] || Double.isNaN(maxValues[k])) {
+			maxs[k] = i;
+			maxValues[k] = y;
+		    }
+		}
+		continue;
+	    }
+	    // column finished, flush its points in index order
+	    bucket[0] = first;
+	    bucket[1] = i - 1;
+	    for (int k=0;k<ims.length;k++) {
+		bucket[2 + 2*k] = mins[k];
+		bucket[3 + 2*k] = maxs[k];
+	    }
+	    Arrays.sort(bucket);
+	    for (int j=0;j<perColumn;j++)
+		if (j == 0 || bucket[j] != bucket[j-1])
+		    indices[count++] = bucket[j];
+
+	    column = c;
+	    first = i;
+	    Arrays.fill(mins, i);
+	    Arrays.fill(maxs, i);
+	    if (i < to) {
+		for (int k=0;k<ims.length;k++) {
+		    minValues[k] = ims[k].get(i);
+		    maxValues[k] = minValues[k];
+		}
+	    }
+	}
+	return Arrays.copyOf(indices, count);
+    }
+
+    /**
+     * Computes the M4 aggregation of a range of a single data series with the
+     * help of its min/max summary. The borders of the pixel columns are found 
+     * with binary search, and the extremes of the columns are queried from the
+     * summary, so the samples inside the columns are not read.
+     * @param dom absolute, non-decreasing X coordinates.
+     * @param from index of the first point of the range.
+     * @param to index after the last point of the range.
+     * @param min absolute minimum value of the "display window".
+     * @param max absolute maximum value of the "display window".
+     * @param columns number of pixel columns the window is drawn onto.
+     * @param index min/max summary of the Y coordinates.
+     * @return ascending indices of the kept points, or null if the range already fits into the columns.
+     */
+    public static int[] m4(Samples dom, int from, int to, double min, double max,
+			   int columns, ExtremaIndex index) {
+	if (columns < 1 || to - from <= (long)columns * 4)
+	    return null;
+
+	int[] indices = new int[columns * 4];
+	int count = 0;
+
+	double span = max - min;
+	int[] bucket = new int[4];
+	for (int first=from;first<to;) {
+	    int column = column((dom.get(first) - min) / span, columns);
+	    // first point of the next column
+	    int low = first + 1, high = to;
+	    while (low < high) {
+		int mid = (low + high) >>> 1;
+		if (column((dom.get(mid) - min) / span, columns) <= column)
+		    low = mid + 1;
+		else
+		    high = mid;
+	    }
+	    bucket[0] = first;
+	    bucket[1] = low - 1;
+	    bucket[2] = index.argMin(first, low);
+	    bucket[3] = index.argMax(first, low);
+	    Arrays.sort(bucket);
+	    for (int j=0;j<4;j++)
+		if (j == 0 || bucket[j] != bucket[j-1])
+		    indices[count++] = bucket[j];
+	    first = low;
+	}
+	return Arrays.copyOf(indices, count);
+    }
+
+    /**
+     * Finds the range of a non-decreasing domain that is visible in the 
+     * "display window". One point is kept on both sides of the window, so the
+     * lines leaving the window are still drawn to its edges.
+     * @param dom absolute, non-decreasing X coordinates.
+     * @param min absolute minimum value of the "display window".
+     * @param max absolute maximum value of the "display window".
+     * @return index of the first point and the index after the last point of the range.
+     */
+    public static int[] range(Samples dom, double min, double max) {
+	int n = dom.size();
+	if (dom instanceof LinearSamples) {
+	    LinearSamples linear = (LinearSamples)dom;
+	    double step = linear.getStep();
+	    if (step <= 0)
+		return new int[] {0, n};
+	    double first = Math.floor((min - linear.getStart()) / step);
+	    double last = Math.ceil((max - linear.getStart()) / step);
+	    return new int[] {(int)Math.max(0, Math.min(n, first)),
+			      (int)Math.max(0, Math.min(n, last + 1))};
+	}
+	// first point not smaller than min, keeping one point before it
+	int from = Math.max(0, lowerBound(dom, min) - 1);
+	// first point larger than max, keeping it
+	int to = upperBound(dom, max);
+	return new int[] {from, Math.min(n, to + 1)};
+    }
+
+    private static int lowerBound(Samples dom, double x) {
+	int low = 0, high = dom.size();
+	while (low < high) {
+	    int mid = (low + high) >>> 1;
+	    if (dom.get(mid) < x)
+		low = mid + 1;
+	    else
+		high = mid;
+	}
+	return low;
+    }
+
+    private static int upperBound(Samples dom, double x) {
+	int low = 0, high = dom.size();
+	while (low < high) {
+	    int mid = (low + high) >>> 1;
+	    if (dom.get(mid) <= x)
+		low = mid + 1;
+	    else
+		high = mid;
+	}
+	return low;
+    }
+
+    /**
+     * Computes the Largest-Triangle-Three-Buckets downsampling of a data series.
+     * The first and last points are always kept, and every bucket between them
+     * is represented by the point that forms the largest triangle with the 
+     * previously selected point and the average of the next bucket.
+     * @param xs non-decreasing X coordinates of the data points.
+     * @param ys Y coordinates of the data points.
+     * @param threshold number of points to keep, at least 3.
+     * @return ascending indices of the kept points, or null if the series is not longer than the threshold.
+     */
+    public static int[] lttb(double[] xs, double[] ys, int threshold) {
+	return lttb(Samples.of(xs), Samples.of(ys), threshold);
+    }
+
+    /**
+     * Computes the Largest-Triangle-Three-Buckets downsampling of a data series.
+     * @param xs non-decreasing X coordinates of the data points.
+     * @param ys Y coordinates of the data points.
+     * @param threshold number of points to keep, at least 3.
+     * @return ascending indices of the kept points, or null if the series is not longer than the threshold.
+     * @see #lttb(double[], double[], int)
+     */
+    public static int[] lttb(Samples xs, Samples ys, int threshold) {
+	int n = xs.size();
+	if (threshold < 3 || n <= threshold)
+	    return null;
+
+	int[] indices = new int[threshold];
+	double every = (double)(n - 2) / (threshold - 2);
+	int a = 0;
+	indices[0] = 0;
+
+	for (int i=0;i<threshold-2;i++) {
+	    // average point of the next bucket
+	    int avgStart = (int)((i + 1) * every) + 1;
+	    int avgEnd = Math.min((int)((i + 2) * every) + 1, n);
+	    double avgX = 0, avgY = 0;
+	    for (int j=avgStart;j<avgEnd;j++) {
+		avgX += xs.get(j);
+		avgY += ys.get(j);
+	    }
+	    avgX /= avgEnd - avgStart;
+	    avgY /= avgEnd - avgStart;
+
+	    // point of the current bucket with the largest triangle
+	    int start = (int)(i * every) + 1;
+	    int end = (int)((i + 1) * every) + 1;
+	    double maxArea = -1;
+	    int next = start;
+	    double ax = xs.get(a), ay = ys.get(a);
+	    for (int j=start;j<end;j++) {
+		double area = Math.abs((ax - avgX) * (ys.get(j) - ay)
+				       - (ax - xs.get(j)) * (avgY - ay));
+		if (area > maxArea) {
+		    maxArea = area;
+		    next = j;
+		}
+	    }
+	    indices[i + 1] = next;
+	    a = next;
+	}
+	indices[threshold - 1] = n - 1;
+	return indices;
+    }
+
+    /**
+     * Selects the given points of an array.
+     * @param values array of the data points.
+     * @param indices indices of the selected points.
+     * @return new array of the selected values.
+     */
+    public static double[] select(double[] values, int[] indices) {
+	double[] selected = new double[indices.length];
+	for (int i=0;i<indices.length;i++)
+	    selected[i] = values[indices[i]];
+	return selected;
+    }
+
+    private static int column(double x, int columns) {
+	int c = (int)(x * columns);
+	return c < 0 ? 0 : (c >= columns ? columns - 1 : c);
+    }
+}
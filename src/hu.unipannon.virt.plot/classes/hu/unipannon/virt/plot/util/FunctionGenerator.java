@@ -25,6 +25,9 @@ package hu.unipannon.virt.plot.util;
 
 import java.util.function.Function;
 
+import hu.unipannon.virt.plot.data.LinearSamples;
+import hu.unipannon.virt.plot.data.Samples;
+
 /**
  * The FunctionGenerator class generates an array of x and y coordinates 
  * that can make up a function. The domain of the function and the 
@@ -176,6 +179,15 @@ public class FunctionGenerator {
         return this.ys;
     }
     
+    /**
+     * Query for the X values as evenly spaced samples, which are computed 
+     * from the start value and the distance instead of being stored.
+     * @return X values as samples.
+     */
+    public Samples getXSamples() {
+        return new LinearSamples(startValue, getDx(), frequency);
+    }
+
     /**
      * Query for the distance between the X values.
      * @return distance between the X values.
@@ -0,0 +1,91 @@
+/*
+MIT License
+
+Copyright (c) 2023 Electrical Brain Imaging Lab
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+*/
+package hu.unipannon.virt.plot.util;
+
+import hu.unipannon.virt.plot.data.Samples;
+
+/**
+ * The LogProjection class projects values onto a logarithmic axis in a single
+ * pass. The values are normalized to the window, so the base of the logarithm
+ * cancels out and a projection is a single Math.log call per value.
+ * <br>
+ * The logarithm is only defined for positive values. Non-positive values are 
+ * masked: they are projected to NaN, which the plot spaces display as a gap of
+ * the line, instead of an infinite coordinate that breaks the whole path.
+ * 
+ * @author Tóth Bálint
+ */
+public final class LogProjection {
+
+    private LogProjection() {}
+
+    /**
+     * Normalizes values onto a logarithmic axis, so the minimum of the window
+     * is projected to 0 and the maximum to 1.
+     * @param values absolute values.
+     * @param min absolute minimum value of the window, must be positive.
+     * @param max absolute maximum value of the window, must be positive.
+     * @return normalized values, NaN for the non-positive values.
+     */
+    public static double[] project(double[] values, double min, double max) {
+	return project(Samples.of(values), min, max);
+    }
+
+    /**
+     * Normalizes samples onto a logarithmic axis, so the minimum of the window
+     * is projected to 0 and the maximum to 1.
+     * @param src absolute values.
+     * @param min absolute minimum value of the window, must be positive.
+     * @param max absolute maximum value of the window, must be positive.
+     * @return normalized values, NaN for the non-positive values.
+     */
+    public static double[] project(Samples src, double min, double max) {
+	// (log(v) - log(min)) / (log(max) - log(min)), with the constant 
+	// parts computed once, the base cancels out of the quotient
+	double lnMin = Math.log(min);
+	double inv = 1.d / (Math.log(max) - lnMin);
+	double[] v = new double[src.size()];
+	for (int i=0;i<v.length;i++) {
+	    double x = src.get(i);
+	    v[i] = x > 0 ? (Math.log(x) - lnMin) * inv : Double.NaN;
+	}
+	return v;
+    }
+
+    /**
+     * Computes the lowest positive value of samples, the lowest value that can
+     * be displayed on a logarithmic axis.
+     * @param src absolute values.
+     * @return lowest positive value, positive infinity if there is none.
+     */
+    public static double positiveMin(Samples src) {
+	double min = Double.POSITIVE_INFINITY;
+	for (int i=0;i<src.size();i++) {
+	    double x = src.get(i);
+	    if (x > 0 && x < min)
+		min = x;
+	}
+	return min;
+    }
+}
@@ -24,6 +24,8 @@ SOFTWARE.
 package hu.unipannon.virt.plot.util;
 
 import hu.unipannon.virt.plot.frame.BarStyle;
+import hu.unipannon.virt.plot.frame.DensityMapping;
+import hu.unipannon.virt.plot.frame.RenderMode;
 import hu.unipannon.virt.plot.frame.StrokeStyle;
 import javafx.scene.paint.Color;
 import javafx.scene.paint.Paint;
@@ -141,4 +143,28 @@ public class Parser {
 	else
 	    return BarStyle.GROUPED;
     }
+
+    /**
+     * Function used to create a RenderMode enum from its string representation.
+     * @param modeStr name of the render mode. Can be: (nodes, canvas)
+     * @return RenderMode enum of the given mode.
+     */
+    public static RenderMode parseRenderMode(String modeStr) {
+	if (Parser.parseStringRef(modeStr.toUpperCase(), "CANVAS"))
+	    return RenderMode.CANVAS;
+	else
+	    return RenderMode.NODES;
+    }
+
+    /**
+     * Function used to create a DensityMapping enum from its string representation.
+     * @param mappingStr name of the mapping. Can be: (linear, log)
+     * @return DensityMapping enum of the given mapping.
+     */
+    public static DensityMapping parseDensityMapping(String mappingStr) {
+	if (Parser.parseStringRef(mappingStr.toUpperCase(), "LINEAR"))
+	    return DensityMapping.LINEAR;
+	else
+	    return DensityMapping.LOG;
+    }
 }
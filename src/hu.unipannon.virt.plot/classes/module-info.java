@@ -51,6 +51,7 @@ SOFTWARE.
  * <pre>
  *  - javafx.controls
  *  - javafx.swing
+ *  - java.desktop
  * </pre>
  * 
  * <br><br>
@@ -82,6 +83,8 @@ module hu.unipannon.virt.plot {
     // javafx base modules
     requires javafx.controls;
     requires javafx.swing;
+    // headless rendering
+    requires java.desktop;
     
     // exporting all the code
     exports hu.unipannon.virt.plot.fluent;
@@ -91,4 +94,5 @@ module hu.unipannon.virt.plot {
     exports hu.unipannon.virt.plot.util;
     exports hu.unipannon.virt.plot.frame.horizontal;
     exports hu.unipannon.virt.plot.frame.vertical;
+    exports hu.unipannon.virt.plot.headless;
 }